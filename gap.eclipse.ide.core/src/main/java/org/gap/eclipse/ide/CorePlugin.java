@@ -4,6 +4,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.gap.eclipse.ide.projects.ProjectLocationIndex;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -18,6 +19,9 @@ public class CorePlugin extends AbstractUIPlugin {
 	private static CorePlugin plugin;
 	
 	boolean started;
+
+	private ProjectLocationIndex projectLocationIndex;
+
 	/**
 	 * The constructor
 	 */
@@ -31,6 +35,7 @@ public class CorePlugin extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin  = this;
+		projectLocationIndex = new ProjectLocationIndex();
 		started = true;
 	}
 
@@ -39,6 +44,8 @@ public class CorePlugin extends AbstractUIPlugin {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		projectLocationIndex.dispose();
+		projectLocationIndex = null;
 		plugin = null;
 		started = false;
 		super.stop(context);
@@ -64,6 +71,10 @@ public class CorePlugin extends AbstractUIPlugin {
 		return imageDescriptorFromPlugin(PLUGIN_ID, path);
 	}
 
+	public ProjectLocationIndex getProjectLocationIndex() {
+		return projectLocationIndex;
+	}
+
 	public void logError(String message, Throwable t) {
 		getLog().log(new Status(IStatus.ERROR, PLUGIN_ID, message, t));
 	}
@@ -8,7 +8,6 @@ import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.ui.ISelectionService;
@@ -43,8 +42,10 @@ public abstract class BaseProjectHandler extends AbstractHandler {
 		if (useProgressService) {
 			final IProgressService progressService = window.getWorkbench().getProgressService();
 			try {
-				progressService.run(true, false, pm -> executeOnSelection(selectionProjects, pm, window));
-			} catch (InvocationTargetException | InterruptedException e) {
+				progressService.run(true, true, pm -> executeOnSelection(selectionProjects, pm, window));
+			} catch (InterruptedException e) {
+				// canceled by the user.
+			} catch (InvocationTargetException e) {
 				CorePlugin.getDefault().logError(String.format("Job [%s] interrupted or ended with an error", getClass().getName()), e);
 			}
 		} else {
@@ -54,9 +55,7 @@ public abstract class BaseProjectHandler extends AbstractHandler {
 	}
 
 	private void executeOnSelection(List<IProject> projects, IProgressMonitor pm, IWorkbenchWindow window) {
-		List<IProject> projectsToOperate = new ArrayList<>(projects);
-		projects.forEach(p -> projectsToOperate.addAll(NestedProjectWalker.walkerFor(p).toList()));
-		executeOperation(projectsToOperate, pm, window);
+		executeOperation(CorePlugin.getDefault().getProjectLocationIndex().withNested(projects), pm, window);
 	}
 
 	protected abstract void executeOperation(List<IProject> projects, IProgressMonitor pm, IWorkbenchWindow window);
@@ -67,8 +66,4 @@ public abstract class BaseProjectHandler extends AbstractHandler {
 		selection.forEach(p -> projects.add((IProject) p));
 		return projects;
 	}
-
-	protected void log(CoreException e, IProject p) {
-		CorePlugin.getDefault().logError(String.format("Error closing project %s", p.getName()), e);
-	}
 }
@@ -0,0 +1,211 @@
+package org.gap.eclipse.ide.projects;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Index of the projects of the workspace by location, to find the projects
+ * nested in other projects.
+ * <p>
+ * The locations are kept in a tree of path segments, built on the first query
+ * and then maintained from the projects added to, removed from or moved in the
+ * workspace, so a query only walks the part of the tree under the queried
+ * projects.
+ * </p>
+ */
+public class ProjectLocationIndex implements IResourceChangeListener {
+	private final IWorkspace workspace;
+
+	private final Node root = new Node();
+
+	private final Map<IProject, IPath> locations = new HashMap<>();
+
+	private boolean built;
+
+	// marks the nodes already walked by the current query.
+	private int visit;
+
+	public ProjectLocationIndex() {
+		workspace = ResourcesPlugin.getWorkspace();
+		workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the given projects followed by the projects nested in their
+	 * locations, each project once, with every project before the projects nested
+	 * in it.
+	 */
+	public synchronized List<IProject> withNested(Collection<IProject> projects) {
+		if (!built) {
+			for (IProject project : workspace.getRoot().getProjects()) {
+				add(project);
+			}
+			built = true;
+		}
+
+		// outer projects first, so the projects nested in them are walked from them.
+		final List<IProject> sorted = new ArrayList<>(projects);
+		sorted.sort(Comparator.comparingInt(p -> {
+			final IPath location = locations.get(p);
+			return location == null ? 0 : location.segmentCount();
+		}));
+
+		final List<IProject> result = new ArrayList<>();
+		visit++;
+		for (IProject project : sorted) {
+			final IPath location = locations.get(project);
+			final Node node = location == null ? null : find(location);
+			if (node == null) {
+				if (!result.contains(project)) {
+					result.add(project);
+				}
+			} else if (node.visit != visit) {
+				collect(node, result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the projects in the tree of the given node which were not added by the
+	 * current query yet.
+	 */
+	private void collect(Node start, List<IProject> result) {
+		final List<Node> pending = new ArrayList<>();
+		pending.add(start);
+		while (!pending.isEmpty()) {
+			final Node node = pending.remove(pending.size() - 1);
+			if (node.visit == visit) {
+				continue;
+			}
+			node.visit = visit;
+			if (node.project != null) {
+				result.add(node.project);
+			}
+			if (node.children != null) {
+				pending.addAll(node.children.values());
+			}
+		}
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		final IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+
+		synchronized (this) {
+			if (!built) {
+				return;
+			}
+			for (IResourceDelta child : delta.getAffectedChildren()) {
+				final IResource resource = child.getResource();
+				if (resource.getType() != IResource.PROJECT) {
+					continue;
+				}
+				if (child.getKind() == IResourceDelta.REMOVED) {
+					remove((IProject) resource);
+				} else if (child.getKind() == IResourceDelta.ADDED
+						|| (child.getFlags() & IResourceDelta.DESCRIPTION) != 0) {
+					// a project moved to another location changes its description.
+					add((IProject) resource);
+				}
+			}
+		}
+	}
+
+	public synchronized void dispose() {
+		workspace.removeResourceChangeListener(this);
+		root.children = null;
+		locations.clear();
+		built = false;
+	}
+
+	private void add(IProject project) {
+		final IPath location = project.getLocation();
+		if (location == null) {
+			return;
+		}
+
+		remove(project);
+		Node node = root;
+		for (String segment : segments(location)) {
+			if (node.children == null) {
+				node.children = new HashMap<>(4);
+			}
+			node = node.children.computeIfAbsent(segment, k -> new Node());
+		}
+		node.project = project;
+		locations.put(project, location);
+	}
+
+	private void remove(IProject project) {
+		final IPath location = locations.remove(project);
+		if (location == null) {
+			return;
+		}
+
+		final String[] segments = segments(location);
+		final Node[] path = new Node[segments.length + 1];
+		path[0] = root;
+		for (int i = 0; i < segments.length; i++) {
+			path[i + 1] = path[i].children == null ? null : path[i].children.get(segments[i]);
+			if (path[i + 1] == null) {
+				return;
+			}
+		}
+		path[segments.length].project = null;
+		// prunes the nodes which no longer lead to a project.
+		for (int i = segments.length; i > 0; i--) {
+			final Node node = path[i];
+			if (node.project != null || (node.children != null && !node.children.isEmpty())) {
+				break;
+			}
+			path[i - 1].children.remove(segments[i - 1]);
+		}
+	}
+
+	private Node find(IPath location) {
+		Node node = root;
+		for (String segment : segments(location)) {
+			node = node.children == null ? null : node.children.get(segment);
+			if (node == null) {
+				return null;
+			}
+		}
+		return node;
+	}
+
+	private static String[] segments(IPath location) {
+		final String[] segments = location.segments();
+		if (location.getDevice() == null) {
+			return segments;
+		}
+		final String[] withDevice = new String[segments.length + 1];
+		withDevice[0] = location.getDevice();
+		System.arraycopy(segments, 0, withDevice, 1, segments.length);
+		return withDevice;
+	}
+
+	private static final class Node {
+		private Map<String, Node> children;
+
+		private IProject project;
+
+		private int visit;
+	}
+}
@@ -0,0 +1,240 @@
+package org.gap.eclipse.ide.projects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.gap.eclipse.ide.CorePlugin;
+
+/**
+ * Opens or closes projects in parallel, in waves ordered by the references
+ * between them.
+ * <p>
+ * A project is opened after the projects it references and closed before
+ * them, and the projects of a wave run as jobs with the scheduling rule of
+ * their own project, at most <code>org.gap.eclipse.ide.projects.threads</code>
+ * at a time. Each one runs as an {@link IWorkspaceRunnable} with
+ * {@link IWorkspace#AVOID_UPDATE}, so their resource deltas are broadcast
+ * together by the periodic notification instead of one by one. All of them
+ * run nested in a single workspace operation without a scheduling rule, so the
+ * auto build is deferred until that operation ends and the workspace is built
+ * once, without changing the auto build preference.
+ * </p>
+ */
+final class ProjectOperation {
+	private static final int THREADS = Math.max(1, Integer.getInteger("org.gap.eclipse.ide.projects.threads",
+			Runtime.getRuntime().availableProcessors()));
+
+	private final String name;
+
+	private final boolean referencesFirst;
+
+	private final Predicate<IProject> needed;
+
+	private final Action action;
+
+	/**
+	 * @param name            the name of the operation, like
+	 *                        <code>"Opening"</code>.
+	 * @param referencesFirst whether referenced projects are processed before the
+	 *                        projects referencing them.
+	 * @param needed          whether the operation has to run on a project.
+	 * @param action          the operation on a single project.
+	 */
+	ProjectOperation(String name, boolean referencesFirst, Predicate<IProject> needed, Action action) {
+		this.name = name;
+		this.referencesFirst = referencesFirst;
+		this.needed = needed;
+		this.action = action;
+	}
+
+	void run(List<IProject> projects, IProgressMonitor pm) {
+		final Set<IProject> selected = new LinkedHashSet<>();
+		for (IProject project : projects) {
+			if (needed.test(project)) {
+				selected.add(project);
+			}
+		}
+		if (selected.isEmpty()) {
+			return;
+		}
+
+		final List<List<IProject>> waves = waves(selected);
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final Map<IProject, Long> durations = new ConcurrentHashMap<>();
+		final long start = System.nanoTime();
+		final IWorkspaceRunnable batch = m -> {
+			final SubMonitor monitor = SubMonitor.convert(m, name + " projects", selected.size());
+			try {
+				for (List<IProject> wave : waves) {
+					runWave(workspace, wave, durations, monitor.split(wave.size()));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		try {
+			// the outer operation holds no rule, the build only runs when it ends.
+			workspace.run(batch, null, IWorkspace.AVOID_UPDATE, pm);
+		} catch (CoreException e) {
+			CorePlugin.getDefault().logError(String.format("Error %s projects", name.toLowerCase()), e);
+		} catch (OperationCanceledException e) {
+			// the remaining waves are skipped.
+		} finally {
+			report(durations, System.nanoTime() - start);
+		}
+	}
+
+	private void runWave(IWorkspace workspace, List<IProject> wave, Map<IProject, Long> durations,
+			IProgressMonitor monitor) throws InterruptedException {
+		final JobGroup group = new JobGroup(name + " projects", THREADS, wave.size());
+		for (IProject project : wave) {
+			final ISchedulingRule rule = workspace.getRuleFactory().modifyRule(project);
+			final Job job = Job.create(name + " " + project.getName(), m -> {
+				final long start = System.nanoTime();
+				try {
+					final IWorkspaceRunnable runnable = pm -> action.run(project, pm);
+					workspace.run(runnable, rule, IWorkspace.AVOID_UPDATE, m);
+				} catch (CoreException e) {
+					CorePlugin.getDefault().logError(
+							String.format("Error %s project %s", name.toLowerCase(), project.getName()), e);
+				} finally {
+					durations.put(project, System.nanoTime() - start);
+				}
+				return Status.OK_STATUS;
+			});
+			job.setRule(rule);
+			job.setSystem(true);
+			job.setJobGroup(group);
+			job.schedule();
+		}
+		if (!group.join(0, monitor)) {
+			group.cancel();
+			throw new OperationCanceledException();
+		}
+		monitor.done();
+	}
+
+	/**
+	 * Splits the projects into waves, where each project comes after the
+	 * projects it depends on. Projects on reference cycles end up in the last
+	 * wave.
+	 */
+	private List<List<IProject>> waves(Set<IProject> projects) {
+		final Map<IProject, List<IProject>> dependents = new HashMap<>();
+		final Map<IProject, Integer> pending = new HashMap<>();
+		for (IProject project : projects) {
+			pending.put(project, 0);
+		}
+		for (IProject project : projects) {
+			for (IProject reference : references(project)) {
+				if (!projects.contains(reference) || reference.equals(project)) {
+					continue;
+				}
+				final IProject before = referencesFirst ? reference : project;
+				final IProject after = referencesFirst ? project : reference;
+				dependents.computeIfAbsent(before, k -> new ArrayList<>()).add(after);
+				pending.merge(after, 1, Integer::sum);
+			}
+		}
+
+		final List<List<IProject>> waves = new ArrayList<>();
+		List<IProject> wave = new ArrayList<>();
+		for (IProject project : projects) {
+			if (pending.get(project) == 0) {
+				wave.add(project);
+			}
+		}
+		int count = 0;
+		while (!wave.isEmpty()) {
+			waves.add(wave);
+			count += wave.size();
+			final List<IProject> next = new ArrayList<>();
+			for (IProject project : wave) {
+				for (IProject dependent : dependents.getOrDefault(project, Collections.emptyList())) {
+					if (pending.merge(dependent, -1, Integer::sum) == 0) {
+						next.add(dependent);
+					}
+				}
+			}
+			wave = next;
+		}
+
+		if (count < projects.size()) {
+			final List<IProject> cycles = new ArrayList<>();
+			for (IProject project : projects) {
+				if (pending.get(project) > 0) {
+					cycles.add(project);
+				}
+			}
+			waves.add(cycles);
+		}
+		return waves;
+	}
+
+	/**
+	 * Returns the projects referenced by the given project, reading the
+	 * description file of projects which are closed.
+	 */
+	private List<IProject> references(IProject project) {
+		final List<IProject> references = new ArrayList<>();
+		try {
+			final IProjectDescription description;
+			if (project.isOpen()) {
+				description = project.getDescription();
+			} else {
+				final IPath location = project.getLocation();
+				if (location == null) {
+					return references;
+				}
+				description = project.getWorkspace()
+						.loadProjectDescription(location.append(IProjectDescription.DESCRIPTION_FILE_NAME));
+			}
+			Collections.addAll(references, description.getReferencedProjects());
+			Collections.addAll(references, description.getDynamicReferences());
+		} catch (CoreException e) {
+			// without references, the project is ordered as if it was independent.
+		}
+		return references;
+	}
+
+	private void report(Map<IProject, Long> durations, long elapsed) {
+		if (durations.isEmpty()) {
+			return;
+		}
+
+		final List<Map.Entry<IProject, Long>> entries = new ArrayList<>(durations.entrySet());
+		entries.sort(Map.Entry.<IProject, Long>comparingByValue().reversed());
+		final double seconds = elapsed / 1e9;
+		final StringBuilder message = new StringBuilder(String.format("%s %d projects took %.1f s (%.1f projects/s)",
+				name, durations.size(), seconds, durations.size() / Math.max(seconds, 1e-3)));
+		for (Map.Entry<IProject, Long> entry : entries) {
+			message.append(String.format("%n  %s: %d ms", entry.getKey().getName(), entry.getValue() / 1_000_000));
+		}
+		CorePlugin.getDefault().logInfo(message.toString());
+	}
+
+	interface Action {
+		void run(IProject project, IProgressMonitor monitor) throws CoreException;
+	}
+}
@@ -0,0 +1,12 @@
+package org.gap.eclipse.ide;
+
+import org.gap.eclipse.ide.projects.ProjectLocationIndexTest;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ ProjectLocationIndexTest.class })
+public class AllTests {
+
+}
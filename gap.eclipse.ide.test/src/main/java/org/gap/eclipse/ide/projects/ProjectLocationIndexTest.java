@@ -0,0 +1,93 @@
+package org.gap.eclipse.ide.projects;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectLocationIndexTest {
+	private final List<IProject> created = new ArrayList<>();
+
+	private ProjectLocationIndex index;
+
+	private IProject outer;
+
+	private IProject inner;
+
+	private IProject deep;
+
+	private IProject other;
+
+	@Before
+	public void before() throws CoreException {
+		outer = create("outer", null);
+		inner = create("inner", outer.getLocation().append("inner"));
+		deep = create("deep", inner.getLocation().append("deep"));
+		other = create("other", null);
+		index = new ProjectLocationIndex();
+	}
+
+	@After
+	public void after() throws CoreException {
+		index.dispose();
+		// nested projects first, their content is inside the outer ones.
+		Collections.reverse(created);
+		for (IProject project : created) {
+			project.delete(true, true, null);
+		}
+		created.clear();
+	}
+
+	@Test
+	public void testWithNested_AddsNestedProjects() {
+		assertEquals(Arrays.asList(outer, inner, deep), index.withNested(Arrays.asList(outer)));
+		assertEquals(Arrays.asList(inner, deep), index.withNested(Arrays.asList(inner)));
+		assertEquals(Arrays.asList(other), index.withNested(Arrays.asList(other)));
+	}
+
+	@Test
+	public void testWithNested_AddsEachProjectOnce() {
+		final List<IProject> result = index.withNested(Arrays.asList(deep, inner, outer, outer));
+
+		assertEquals(Arrays.asList(outer, inner, deep), result);
+	}
+
+	@Test
+	public void testWithNested_FollowsWorkspaceChanges() throws CoreException {
+		index.withNested(Arrays.asList(outer));
+
+		final IProject added = create("added", outer.getLocation().append("added"));
+		final List<IProject> withAdded = index.withNested(Arrays.asList(outer));
+		assertEquals(outer, withAdded.get(0));
+		assertEquals(new HashSet<>(Arrays.asList(outer, inner, deep, added)), new HashSet<>(withAdded));
+		assertEquals(4, withAdded.size());
+
+		added.delete(true, true, null);
+		created.remove(added);
+		assertEquals(Arrays.asList(outer, inner, deep), index.withNested(Arrays.asList(outer)));
+	}
+
+	private IProject create(String name, IPath location) throws CoreException {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final IProject project = workspace.getRoot().getProject(name);
+		final IProjectDescription description = workspace.newProjectDescription(name);
+		description.setLocation(location);
+		project.create(description, null);
+		project.open(null);
+		created.add(project);
+		return project;
+	}
+}
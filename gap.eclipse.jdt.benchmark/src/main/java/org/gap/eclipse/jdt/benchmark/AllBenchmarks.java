@@ -0,0 +1,22 @@
+package org.gap.eclipse.jdt.benchmark;
+
+import org.gap.eclipse.jdt.common.SignaturesBenchmark;
+import org.gap.eclipse.jdt.types.CompletionBenchmark;
+import org.junit.AfterClass;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ SignaturesBenchmark.class, CompletionBenchmark.class })
+public class AllBenchmarks {
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		try {
+			Benchmarks.writeResults(SyntheticWorkspace.TYPES);
+		} finally {
+			SyntheticWorkspace.dispose();
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package org.gap.eclipse.jdt.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Measures the latency of operations in the style of the JMH sample time mode,
+ * and writes the results as JSON.
+ * <p>
+ * Each benchmark runs <code>org.gap.eclipse.jdt.benchmark.warmup</code>
+ * iterations which are not recorded, followed by
+ * <code>org.gap.eclipse.jdt.benchmark.iterations</code> iterations of
+ * <code>org.gap.eclipse.jdt.benchmark.iterationMillis</code> each, in which the
+ * time of every operation is recorded.
+ * </p>
+ */
+public final class Benchmarks {
+	private static final int WARMUP = Integer.getInteger("org.gap.eclipse.jdt.benchmark.warmup", 3);
+
+	private static final int ITERATIONS = Integer.getInteger("org.gap.eclipse.jdt.benchmark.iterations", 5);
+
+	private static final long ITERATION_MILLIS = Long.getLong("org.gap.eclipse.jdt.benchmark.iterationMillis", 1000);
+
+	private static final List<Result> RESULTS = new ArrayList<>();
+
+	// consumes the results of the operations so they are not optimized away.
+	private static volatile int sink;
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * Measures the given operation and records the result under the given name.
+	 */
+	public static Result measure(String name, Operation operation) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			iteration(operation, new Samples());
+		}
+
+		final Samples samples = new Samples();
+		for (int i = 0; i < ITERATIONS; i++) {
+			iteration(operation, samples);
+		}
+
+		final Result result = new Result(name, samples.sorted());
+		synchronized (RESULTS) {
+			RESULTS.add(result);
+		}
+		return result;
+	}
+
+	private static void iteration(Operation operation, Samples samples) throws Exception {
+		final long end = System.nanoTime() + ITERATION_MILLIS * 1_000_000;
+		int hash = 0;
+		long now;
+		do {
+			final long start = System.nanoTime();
+			final Object value = operation.run();
+			now = System.nanoTime();
+			samples.add(now - start);
+			hash += System.identityHashCode(value);
+		} while (now < end);
+		sink += hash;
+	}
+
+	/**
+	 * Writes the recorded results to the file of the
+	 * <code>org.gap.eclipse.jdt.benchmark.output</code> system property.
+	 */
+	public static void writeResults(int workspaceTypes) throws IOException {
+		final Path file = Paths.get(System.getProperty("org.gap.eclipse.jdt.benchmark.output",
+				"target/benchmark-results.json"));
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+				JsonWriter writer = new JsonWriter(out)) {
+			writer.setIndent("  ");
+			writer.beginObject();
+			writer.name("revision").value(System.getProperty("org.gap.eclipse.jdt.benchmark.revision", ""));
+			writer.name("java").value(System.getProperty("java.version"));
+			writer.name("os").value(System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+			writer.name("processors").value(Runtime.getRuntime().availableProcessors());
+			writer.name("workspaceTypes").value(workspaceTypes);
+			writer.name("warmupIterations").value(WARMUP);
+			writer.name("iterations").value(ITERATIONS);
+			writer.name("iterationMillis").value(ITERATION_MILLIS);
+			writer.name("benchmarks").beginArray();
+			synchronized (RESULTS) {
+				for (Result result : RESULTS) {
+					result.write(writer);
+				}
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+	}
+
+	public interface Operation {
+		/**
+		 * Runs the operation once.
+		 *
+		 * @return the result of the operation, which is consumed by the harness.
+		 */
+		Object run() throws Exception;
+	}
+
+	public static final class Result {
+		private final String name;
+
+		private final long[] samples;
+
+		private Result(String name, long[] samples) {
+			this.name = name;
+			this.samples = samples;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public double mean() {
+			long total = 0;
+			for (long sample : samples) {
+				total += sample;
+			}
+			return samples.length == 0 ? 0 : micros(total) / samples.length;
+		}
+
+		public double percentile(double percentile) {
+			if (samples.length == 0) {
+				return 0;
+			}
+			final int index = (int) Math.ceil(percentile / 100 * samples.length) - 1;
+			return micros(samples[Math.max(0, Math.min(samples.length - 1, index))]);
+		}
+
+		private void write(JsonWriter writer) throws IOException {
+			writer.beginObject();
+			writer.name("name").value(name);
+			writer.name("mode").value("sample");
+			writer.name("unit").value("us/op");
+			writer.name("samples").value(samples.length);
+			writer.name("score").value(mean());
+			writer.name("percentiles").beginObject();
+			writer.name("0.0").value(percentile(0));
+			writer.name("50.0").value(percentile(50));
+			writer.name("90.0").value(percentile(90));
+			writer.name("99.0").value(percentile(99));
+			writer.name("100.0").value(percentile(100));
+			writer.endObject();
+			writer.endObject();
+		}
+
+		private static double micros(long nanos) {
+			return nanos / 1000.0;
+		}
+	}
+
+	private static final class Samples {
+		private long[] values = new long[1024];
+
+		private int size;
+
+		private void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private long[] sorted() {
+			final long[] result = Arrays.copyOf(values, size);
+			Arrays.sort(result);
+			return result;
+		}
+	}
+}
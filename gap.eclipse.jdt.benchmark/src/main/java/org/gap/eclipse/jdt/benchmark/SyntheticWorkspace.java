@@ -0,0 +1,205 @@
+package org.gap.eclipse.jdt.benchmark;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameRequestor;
+import org.eclipse.jdt.internal.core.nd.indexer.Indexer;
+import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.TextViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.ui.IEditorPart;
+
+/**
+ * A generated project with <code>org.gap.eclipse.jdt.benchmark.types</code>
+ * types spread over packages of {@value #TYPES_PER_PACKAGE} types, and a client
+ * unit with the completion positions used by the benchmarks.
+ * <p>
+ * Every type extends one of {@value #BASES} base types and declares static
+ * factories and fields of its own type, so static member searches for a base
+ * type match a part of the workspace, and static methods which are candidates
+ * for method references to <code>Predicate&lt;String&gt;</code>.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public final class SyntheticWorkspace {
+	public static final int TYPES = Integer.getInteger("org.gap.eclipse.jdt.benchmark.types", 500);
+
+	/**
+	 * The base type which the static member searches expect.
+	 */
+	public static final String BASE_TYPE = "bench.base.Base0";
+
+	private static final int TYPES_PER_PACKAGE = 50;
+
+	private static final int BASES = 10;
+
+	private static final String REFERENCE_MARKER = "/*reference*/";
+
+	private static final String STATIC_MARKER = "/*static*/";
+
+	private static SyntheticWorkspace instance;
+
+	private final IJavaProject project;
+
+	private final ICompilationUnit client;
+
+	private SyntheticWorkspace(IJavaProject project, ICompilationUnit client) {
+		this.project = project;
+		this.client = client;
+	}
+
+	/**
+	 * Returns the workspace, creating it and waiting until it is built and
+	 * indexed the first time.
+	 */
+	public static synchronized SyntheticWorkspace get() throws CoreException {
+		if (instance == null) {
+			instance = create(new NullProgressMonitor());
+		}
+		return instance;
+	}
+
+	public static synchronized void dispose() throws CoreException {
+		if (instance != null) {
+			JavaProjectHelper.delete(instance.project);
+			instance = null;
+		}
+	}
+
+	private static SyntheticWorkspace create(IProgressMonitor monitor) throws CoreException {
+		final IJavaProject project = JavaProjectHelper.createJavaProject("BenchmarkProject", "bin");
+		JavaProjectHelper.addRTJar18(project);
+		final IPackageFragmentRoot src = JavaProjectHelper.addSourceContainer(project, "src");
+
+		final IPackageFragment bases = src.createPackageFragment("bench.base", false, monitor);
+		for (int i = 0; i < BASES; i++) {
+			bases.createCompilationUnit("Base" + i + ".java",
+					"package bench.base;\npublic abstract class Base" + i + " {\n}\n", false, monitor);
+		}
+
+		IPackageFragment fragment = null;
+		for (int i = 0; i < TYPES; i++) {
+			if (i % TYPES_PER_PACKAGE == 0) {
+				fragment = src.createPackageFragment("bench.p" + i / TYPES_PER_PACKAGE, false, monitor);
+			}
+			fragment.createCompilationUnit("Type" + i + ".java", typeSource(fragment.getElementName(), i), false,
+					monitor);
+		}
+
+		final IPackageFragment clientPackage = src.createPackageFragment("bench.client", false, monitor);
+		final ICompilationUnit client = clientPackage.createCompilationUnit("Client.java", clientSource(), false,
+				monitor);
+
+		waitForAutoBuild();
+		waitUntilIndexesReady();
+		return new SyntheticWorkspace(project, client);
+	}
+
+	private static void waitForAutoBuild() {
+		boolean interrupted;
+		do {
+			try {
+				Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+				interrupted = false;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		} while (interrupted);
+	}
+
+	private static void waitUntilIndexesReady() throws CoreException {
+		Indexer.getInstance().waitForIndex(null);
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_EXACT_MATCH, "!@$#!@".toCharArray(),
+				SearchPattern.R_PATTERN_MATCH | SearchPattern.R_CASE_SENSITIVE, IJavaSearchConstants.CLASS,
+				SearchEngine.createWorkspaceScope(), new TypeNameRequestor() {
+				}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+	}
+
+	private static String typeSource(String packageName, int index) {
+		final String name = "Type" + index;
+		final StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n");
+		source.append("import java.util.Collections;\n");
+		source.append("import java.util.List;\n");
+		source.append("public class ").append(name).append(" extends bench.base.Base").append(index % BASES)
+				.append(" {\n");
+		source.append("  public static final ").append(name).append(" INSTANCE = new ").append(name).append("();\n");
+		source.append("  private String value;\n");
+		source.append("  public static ").append(name).append(" create() { return new ").append(name)
+				.append("(); }\n");
+		source.append("  public static ").append(name).append(" of(String value) { ").append(name)
+				.append(" t = new ").append(name).append("(); t.value = value; return t; }\n");
+		source.append("  public static boolean accepts").append(index).append("(String value) { return value != null; }\n");
+		source.append("  public static List<").append(name).append("> list() { return Collections.singletonList(INSTANCE); }\n");
+		source.append("  public String getValue() { return value; }\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private static String clientSource() {
+		final StringBuilder source = new StringBuilder();
+		source.append("package bench.client;\n");
+		source.append("import java.util.stream.Stream;\n");
+		source.append("import bench.base.Base0;\n");
+		source.append("public class Client {\n");
+		source.append("  public static boolean isEmpty(String value) { return value.isEmpty(); }\n");
+		source.append("  public void use(Base0 base) {\n");
+		source.append("  }\n");
+		source.append("  public void run(String value) {\n");
+		source.append("    Stream.of(value).filter(").append(REFERENCE_MARKER).append(");\n");
+		source.append("    use(").append(STATIC_MARKER).append(");\n");
+		source.append("  }\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	public IJavaProject getProject() {
+		return project;
+	}
+
+	public ICompilationUnit getClient() {
+		return client;
+	}
+
+	/**
+	 * Returns the offset of the argument of the method expecting a
+	 * <code>Predicate&lt;String&gt;</code>.
+	 */
+	public int getReferenceOffset() throws CoreException {
+		return client.getSource().indexOf(REFERENCE_MARKER);
+	}
+
+	/**
+	 * Returns the offset of the argument of the method expecting a
+	 * {@link #BASE_TYPE}.
+	 */
+	public int getStaticOffset() throws CoreException {
+		return client.getSource().indexOf(STATIC_MARKER);
+	}
+
+	/**
+	 * Opens the client unit in an editor and returns a content assist context at
+	 * the given offset.
+	 */
+	public JavaContentAssistInvocationContext createContext(int offset) throws CoreException {
+		final IEditorPart editor = EditorUtility.openInEditor(client);
+		final ITextViewer viewer = new TextViewer(editor.getSite().getShell(), SWT.NONE);
+		viewer.setDocument(new Document(client.getSource()));
+		viewer.setSelectedRange(offset, 0);
+		return new JavaContentAssistInvocationContext(viewer, offset, editor);
+	}
+}
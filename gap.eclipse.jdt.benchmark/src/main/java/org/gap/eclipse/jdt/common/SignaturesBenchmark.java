@@ -0,0 +1,66 @@
+package org.gap.eclipse.jdt.common;
+
+import org.eclipse.jdt.core.Signature;
+import org.gap.eclipse.jdt.benchmark.Benchmarks;
+import org.junit.Test;
+
+public class SignaturesBenchmark {
+	private static final String[][] ASSIGNABLE = {
+			{ Signature.createTypeSignature("java.util.List", true),
+					Signature.createTypeSignature("java.util.List", true) },
+			{ Signature.createTypeSignature("java.util.List<E>", true),
+					Signature.createTypeSignature("java.util.List<String>", true) },
+			{ Signature.createTypeSignature("java.util.Map<? extends K, V>", true),
+					Signature.createTypeSignature("java.util.Map<String, java.util.List<Integer>>", true) },
+			{ Signature.createTypeSignature("java.util.Set<String>", true),
+					Signature.createTypeSignature("java.util.List<String>", true) } };
+
+	private static final String[] PARAMETERIZED = {
+			Signature.createTypeSignature("java.util.List<String>", true),
+			Signature.createTypeSignature("java.util.Map<String, java.util.List<Integer>>", true),
+			Signature.createTypeSignature(
+					"java.util.function.BiFunction<java.util.Map<String, ? extends Number>, java.util.Set<Long>, java.util.Optional<java.util.List<String>>>",
+					true) };
+
+	@Test
+	public void isAssignable() throws Exception {
+		Benchmarks.measure("Signatures.isAssignable", () -> {
+			int assignable = 0;
+			for (String[] pair : ASSIGNABLE) {
+				if (Signatures.isAssignable(pair[0], pair[1])) {
+					assignable++;
+				}
+			}
+			return assignable;
+		});
+	}
+
+	@Test
+	public void isAssignableInPlace() throws Exception {
+		final SignatureCursor[][] pairs = new SignatureCursor[ASSIGNABLE.length][];
+		for (int i = 0; i < ASSIGNABLE.length; i++) {
+			pairs[i] = new SignatureCursor[] { SignatureCursor.of(ASSIGNABLE[i][0]),
+					SignatureCursor.of(ASSIGNABLE[i][1]) };
+		}
+		Benchmarks.measure("Signatures.isAssignable(SignatureCursor)", () -> {
+			int assignable = 0;
+			for (SignatureCursor[] pair : pairs) {
+				if (Signatures.isAssignable(pair[0], pair[1])) {
+					assignable++;
+				}
+			}
+			return assignable;
+		});
+	}
+
+	@Test
+	public void getTypeParametersFromTypeSignature() throws Exception {
+		Benchmarks.measure("Signatures.getTypeParametersFromTypeSignature", () -> {
+			int count = 0;
+			for (String signature : PARAMETERIZED) {
+				count += Signatures.getTypeParametersFromTypeSignature(signature).size();
+			}
+			return count;
+		});
+	}
+}
@@ -0,0 +1,73 @@
+package org.gap.eclipse.jdt.types;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+import org.gap.eclipse.jdt.benchmark.Benchmarks;
+import org.gap.eclipse.jdt.benchmark.SyntheticWorkspace;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompletionBenchmark {
+	private static SyntheticWorkspace workspace;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		workspace = SyntheticWorkspace.get();
+	}
+
+	@Test
+	public void completionASTVistor() throws Exception {
+		final JavaContentAssistInvocationContext context = workspace.createContext(workspace.getReferenceOffset());
+		final String source = workspace.getClient().getSource();
+		Benchmarks.measure("CompletionASTVistor.parseAndVisit", () -> visit(context, source));
+	}
+
+	@Test
+	public void methodReferenceFinder() throws Exception {
+		final JavaContentAssistInvocationContext context = workspace.createContext(workspace.getReferenceOffset());
+		final ITypeBinding expected = visit(context, workspace.getClient().getSource()).getExpectedTypeBinding();
+		assertNotNull("Expected type of the method reference", expected);
+		final IMethodBinding binding = expected.getFunctionalInterfaceMethod();
+		assertNotNull("Functional method of " + expected.getName(), binding);
+
+		final List<IJavaElement> elements = new ArrayList<>(
+				Arrays.asList(context.getCoreContext().getVisibleElements(null)));
+		final MethodReferenceFinder finder = new MethodReferenceFinder();
+		Benchmarks.measure("MethodReferenceFinder.find",
+				() -> finder.find(binding, elements, context).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void staticMemberFinder() throws Exception {
+		final JavaContentAssistInvocationContext context = workspace.createContext(workspace.getStaticOffset());
+		final List<String> expected = Collections.singletonList(SyntheticWorkspace.BASE_TYPE);
+		Benchmarks.measure("StaticMemberFinder.find.cold",
+				() -> new StaticMemberFinder().find(expected, context, new NullProgressMonitor(),
+						CompletionBudget.start(null)).collect(Collectors.toList()));
+
+		final StaticMemberFinder finder = new StaticMemberFinder();
+		Benchmarks.measure("StaticMemberFinder.find.warm", () -> finder
+				.find(expected, context, new NullProgressMonitor(), CompletionBudget.start(null))
+				.collect(Collectors.toList()));
+	}
+
+	private static CompletionASTVistor visit(JavaContentAssistInvocationContext context, String source) {
+		final CompletionASTVistor visitor = new CompletionASTVistor(context);
+		final CompilationUnit ast = CompletionASTVistor.createParsedUnitForCorrectedSource(
+				workspace.getClient().getElementName(), source, workspace.getProject(), new NullProgressMonitor());
+		ast.accept(visitor);
+		return visitor;
+	}
+}
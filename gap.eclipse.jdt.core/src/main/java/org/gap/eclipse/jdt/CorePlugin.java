@@ -1,12 +1,26 @@
 package org.gap.eclipse.jdt;
 
+import java.util.Hashtable;
+
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.eclipse.osgi.service.debug.DebugOptionsListener;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.gap.eclipse.jdt.annotation.RecursionAnalysisJob;
 import org.gap.eclipse.jdt.common.Images;
+import org.gap.eclipse.jdt.common.SearchPool;
+import org.gap.eclipse.jdt.index.StaticMemberIndex;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics;
+import org.gap.eclipse.jdt.symbol.SymbolIndex;
+import org.gap.eclipse.jdt.types.EnumLiteralIndex;
+import org.gap.eclipse.jdt.types.StaticMemberCache;
+import org.gap.eclipse.jdt.types.TypeHierarchyCache;
+import org.gap.eclipse.jdt.types.TypeTable;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
 
 /**
  * The activator class controls the plug-in life cycle
@@ -20,6 +34,27 @@ public class CorePlugin extends AbstractUIPlugin {
 	private static CorePlugin plugin;
 	
 	boolean started;
+
+	private StaticMemberIndex staticMemberIndex;
+
+	private SearchPool searchPool;
+
+	private TypeHierarchyCache typeHierarchyCache;
+
+	private TypeTable typeTable;
+
+	private StaticMemberCache staticMemberCache;
+
+	private EnumLiteralIndex enumLiteralIndex;
+
+	private SymbolIndex symbolIndex;
+
+	private RecursionAnalysisJob recursionAnalysisJob;
+
+	private CompletionMetrics completionMetrics;
+
+	private ServiceRegistration<DebugOptionsListener> debugOptionsRegistration;
+
 	/**
 	 * The constructor
 	 */
@@ -33,6 +68,18 @@ public class CorePlugin extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin  = this;
+		completionMetrics = new CompletionMetrics();
+		final Hashtable<String, String> properties = new Hashtable<>();
+		properties.put(DebugOptions.LISTENER_SYMBOLICNAME, PLUGIN_ID);
+		debugOptionsRegistration = context.registerService(DebugOptionsListener.class, completionMetrics, properties);
+		staticMemberIndex = new StaticMemberIndex(getStateLocation().append("index").toFile().toPath());
+		searchPool = new SearchPool();
+		typeHierarchyCache = new TypeHierarchyCache();
+		typeTable = new TypeTable();
+		staticMemberCache = new StaticMemberCache();
+		enumLiteralIndex = new EnumLiteralIndex();
+		symbolIndex = new SymbolIndex();
+		recursionAnalysisJob = new RecursionAnalysisJob();
 		started = true;
 	}
 
@@ -41,6 +88,25 @@ public class CorePlugin extends AbstractUIPlugin {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		recursionAnalysisJob.dispose();
+		recursionAnalysisJob = null;
+		symbolIndex.dispose();
+		symbolIndex = null;
+		enumLiteralIndex.dispose();
+		enumLiteralIndex = null;
+		staticMemberCache.dispose();
+		staticMemberCache = null;
+		typeTable.dispose();
+		typeTable = null;
+		typeHierarchyCache.dispose();
+		typeHierarchyCache = null;
+		searchPool.close();
+		searchPool = null;
+		staticMemberIndex.dispose();
+		staticMemberIndex = null;
+		debugOptionsRegistration.unregister();
+		debugOptionsRegistration = null;
+		completionMetrics = null;
 		plugin = null;
 		started = false;
 		super.stop(context);
@@ -66,6 +132,42 @@ public class CorePlugin extends AbstractUIPlugin {
 		return imageDescriptorFromPlugin(PLUGIN_ID, path);
 	}
 
+	public StaticMemberIndex getStaticMemberIndex() {
+		return staticMemberIndex;
+	}
+
+	public SearchPool getSearchPool() {
+		return searchPool;
+	}
+
+	public TypeHierarchyCache getTypeHierarchyCache() {
+		return typeHierarchyCache;
+	}
+
+	public TypeTable getTypeTable() {
+		return typeTable;
+	}
+
+	public StaticMemberCache getStaticMemberCache() {
+		return staticMemberCache;
+	}
+
+	public EnumLiteralIndex getEnumLiteralIndex() {
+		return enumLiteralIndex;
+	}
+
+	public SymbolIndex getSymbolIndex() {
+		return symbolIndex;
+	}
+
+	public RecursionAnalysisJob getRecursionAnalysisJob() {
+		return recursionAnalysisJob;
+	}
+
+	public CompletionMetrics getCompletionMetrics() {
+		return completionMetrics;
+	}
+
 	public void logError(String message, Throwable t) {
 		getLog().log(new Status(IStatus.ERROR, PLUGIN_ID, message, t));
 	}
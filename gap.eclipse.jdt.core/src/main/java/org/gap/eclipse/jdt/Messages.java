@@ -4,9 +4,15 @@ import org.eclipse.osgi.util.NLS;
 
 public class Messages extends NLS {
 	private static final String BUNDLE_NAME = "org.gap.eclipse.jdt.messages"; //$NON-NLS-1$
+	public static String EnumLiteralIndex_JobName;
 	public static String Hyperlink_OpenReference;
 	public static String Hyperlink_SearchDescription;
+	public static String MarkerUpdate_JobName;
+	public static String RecursionAnalysisJob_JobName;
 	public static String SearchJobTracker_JobName;
+	public static String StaticMemberIndexJob_JobName;
+	public static String SymbolIndex_JobName;
+	public static String TypeHierarchyCache_WarmJobName;
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
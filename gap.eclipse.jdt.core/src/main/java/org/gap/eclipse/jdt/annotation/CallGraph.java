@@ -0,0 +1,391 @@
+package org.gap.eclipse.jdt.annotation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.IJavaProject;
+
+/**
+ * Call graph of the methods declared in the compilation units of a project,
+ * used to find methods which call themselves through other methods.
+ * <p>
+ * Methods are interned by their binding key to an int id, and the calls are
+ * kept as arrays of ids in both directions. The calls of a unit are replaced
+ * when it changes, which only touches the edges of that unit. Cycles are then
+ * searched with Tarjan's algorithm, restricted to the methods which can reach
+ * back to a method of the unit, so the cost depends on the part of the graph
+ * the unit is connected to and not on the size of the project.
+ * </p>
+ * <p>
+ * The methods on the cycles of each unit are remembered, so an update reports
+ * the other units whose markers change with it. Ids of methods which are
+ * neither declared in a unit nor called anymore are released and reused.
+ * </p>
+ */
+final class CallGraph {
+	private static final int[] NONE = new int[0];
+
+	private static final Map<String, CallGraph> PROJECTS = new ConcurrentHashMap<>();
+
+	private final Map<String, Integer> ids = new HashMap<>();
+
+	private final List<String> keys = new ArrayList<>();
+
+	private final IntStack free = new IntStack();
+
+	private final Map<String, int[]> units = new HashMap<>();
+
+	// the methods on the cycles found by the last update of each unit.
+	private final Map<String, Set<String>> unitCycles = new HashMap<>();
+
+	private String[] owners = new String[256];
+
+	private int[][] callees = new int[256][];
+
+	private int[][] callers = new int[256][];
+
+	private int[] callerCounts = new int[256];
+
+	// state of the last cycle search, valid for ids whose mark is the epoch.
+	private int epoch;
+
+	private int[] reaching = new int[256];
+
+	private int[] visited = new int[256];
+
+	private int[] indexes = new int[256];
+
+	private int[] lows = new int[256];
+
+	private boolean[] onStack = new boolean[256];
+
+	static CallGraph of(IJavaProject project) {
+		return PROJECTS.computeIfAbsent(project.getHandleIdentifier(), k -> new CallGraph());
+	}
+
+	static void remove(IJavaProject project) {
+		PROJECTS.remove(project.getHandleIdentifier());
+	}
+
+	/**
+	 * Replaces the calls made by the methods of the given unit, and returns the
+	 * methods on call cycles through more than one method which contain a method
+	 * of the unit, mapped to a number identifying their cycle.
+	 *
+	 * @param calls the binding keys of the methods called by each method declared
+	 *              in the unit.
+	 * @param otherUnits receives the other units which declare methods on cycles
+	 *              of the unit which were added or removed by this update.
+	 */
+	synchronized Map<String, Integer> update(String unit, Map<String, Set<String>> calls,
+			Collection<String> otherUnits) {
+		final IntStack released = new IntStack();
+		for (int method : units.getOrDefault(unit, NONE)) {
+			released.push(method);
+			if (callees[method] != null) {
+				for (int callee : callees[method]) {
+					released.push(callee);
+				}
+			}
+			setCallees(method, NONE);
+			owners[method] = null;
+		}
+
+		final int[] methods = new int[calls.size()];
+		int count = 0;
+		for (Map.Entry<String, Set<String>> entry : calls.entrySet()) {
+			final int method = intern(entry.getKey());
+			methods[count++] = method;
+			owners[method] = unit;
+			final int[] targets = new int[entry.getValue().size()];
+			int targetCount = 0;
+			for (String callee : entry.getValue()) {
+				targets[targetCount++] = intern(callee);
+			}
+			Arrays.sort(targets);
+			setCallees(method, targets);
+		}
+
+		final Map<String, Integer> cycles;
+		if (methods.length == 0) {
+			units.remove(unit);
+			cycles = new HashMap<>();
+		} else {
+			units.put(unit, methods);
+			cycles = cycles(methods);
+		}
+		changedUnits(unit, cycles.keySet(), otherUnits);
+		while (!released.isEmpty()) {
+			releaseIfUnused(released.pop());
+		}
+		return cycles;
+	}
+
+	/**
+	 * Removes the calls of the given unit, which no longer exists.
+	 *
+	 * @param otherUnits receives the other units which declare methods on cycles
+	 *              of the unit.
+	 */
+	synchronized void remove(String unit, Collection<String> otherUnits) {
+		update(unit, Collections.emptyMap(), otherUnits);
+	}
+
+	private void changedUnits(String unit, Set<String> cycleMethods, Collection<String> otherUnits) {
+		final Set<String> previous = cycleMethods.isEmpty() ? unitCycles.remove(unit)
+				: unitCycles.put(unit, new HashSet<>(cycleMethods));
+		if (previous == null ? cycleMethods.isEmpty() : previous.equals(cycleMethods)) {
+			return;
+		}
+
+		final Set<String> changed = new HashSet<>(cycleMethods);
+		if (previous != null) {
+			changed.addAll(previous);
+		}
+		for (String key : changed) {
+			final Integer id = ids.get(key);
+			final String owner = id != null ? owners[id] : null;
+			if (owner != null && !owner.equals(unit) && !otherUnits.contains(owner)) {
+				otherUnits.add(owner);
+			}
+		}
+	}
+
+	private int intern(String key) {
+		final Integer id = ids.get(key);
+		if (id != null) {
+			return id;
+		}
+
+		if (!free.isEmpty()) {
+			final int reused = free.pop();
+			ids.put(key, reused);
+			keys.set(reused, key);
+			return reused;
+		}
+
+		final int newId = keys.size();
+		ids.put(key, newId);
+		keys.add(key);
+		if (newId == callees.length) {
+			final int capacity = newId * 2;
+			callees = Arrays.copyOf(callees, capacity);
+			callers = Arrays.copyOf(callers, capacity);
+			callerCounts = Arrays.copyOf(callerCounts, capacity);
+			owners = Arrays.copyOf(owners, capacity);
+			reaching = Arrays.copyOf(reaching, capacity);
+			visited = Arrays.copyOf(visited, capacity);
+			indexes = Arrays.copyOf(indexes, capacity);
+			lows = Arrays.copyOf(lows, capacity);
+			onStack = Arrays.copyOf(onStack, capacity);
+		}
+		return newId;
+	}
+
+	/**
+	 * Releases the id of the given method if it is not declared in a unit and
+	 * has no calls in either direction.
+	 */
+	private void releaseIfUnused(int method) {
+		final String key = keys.get(method);
+		if (key != null && owners[method] == null && callees[method] == null && callerCounts[method] == 0) {
+			ids.remove(key);
+			keys.set(method, null);
+			callers[method] = null;
+			free.push(method);
+		}
+	}
+
+	private void setCallees(int method, int[] targets) {
+		final int[] previous = callees[method];
+		if (previous != null) {
+			for (int i = 0; i < previous.length; i++) {
+				if (i == 0 || previous[i] != previous[i - 1]) {
+					removeCaller(previous[i], method);
+				}
+			}
+		}
+
+		callees[method] = targets.length == 0 ? null : targets;
+		for (int i = 0; i < targets.length; i++) {
+			if (i == 0 || targets[i] != targets[i - 1]) {
+				addCaller(targets[i], method);
+			}
+		}
+	}
+
+	private void addCaller(int method, int caller) {
+		int[] list = callers[method];
+		if (list == null) {
+			list = callers[method] = new int[2];
+		} else if (callerCounts[method] == list.length) {
+			list = callers[method] = Arrays.copyOf(list, list.length * 2);
+		}
+		list[callerCounts[method]++] = caller;
+	}
+
+	private void removeCaller(int method, int caller) {
+		final int[] list = callers[method];
+		final int count = callerCounts[method];
+		for (int i = 0; i < count; i++) {
+			if (list[i] == caller) {
+				list[i] = list[count - 1];
+				callerCounts[method] = count - 1;
+				return;
+			}
+		}
+	}
+
+	private Map<String, Integer> cycles(int[] methods) {
+		epoch++;
+		markReaching(methods);
+
+		final Map<String, Integer> result = new HashMap<>();
+		final IntStack stack = new IntStack();
+		final IntStack frames = new IntStack();
+		final IntStack positions = new IntStack();
+		int index = 0;
+		int cycle = 0;
+		for (int root : methods) {
+			if (visited[root] == epoch) {
+				continue;
+			}
+
+			index = visit(root, index, stack);
+			frames.push(root);
+			positions.push(0);
+			while (!frames.isEmpty()) {
+				final int method = frames.peek();
+				final int position = positions.peek();
+				final int[] targets = callees[method] == null ? NONE : callees[method];
+				if (position < targets.length) {
+					positions.replace(position + 1);
+					final int target = targets[position];
+					if (reaching[target] != epoch) {
+						continue;
+					}
+					if (visited[target] != epoch) {
+						index = visit(target, index, stack);
+						frames.push(target);
+						positions.push(0);
+					} else if (onStack[target]) {
+						lows[method] = Math.min(lows[method], indexes[target]);
+					}
+					continue;
+				}
+
+				frames.pop();
+				positions.pop();
+				if (!frames.isEmpty()) {
+					lows[frames.peek()] = Math.min(lows[frames.peek()], lows[method]);
+				}
+				if (lows[method] == indexes[method]) {
+					final int start = stack.indexOf(method);
+					// a component of one method is a direct call, which is marked on its own.
+					if (stack.size() - start > 1) {
+						for (int i = start; i < stack.size(); i++) {
+							result.put(keys.get(stack.get(i)), cycle);
+						}
+						cycle++;
+					}
+					for (int i = start; i < stack.size(); i++) {
+						onStack[stack.get(i)] = false;
+					}
+					stack.truncate(start);
+				}
+			}
+		}
+		return result;
+	}
+
+	private int visit(int method, int index, IntStack stack) {
+		visited[method] = epoch;
+		indexes[method] = index;
+		lows[method] = index;
+		onStack[method] = true;
+		stack.push(method);
+		return index + 1;
+	}
+
+	/**
+	 * Marks the methods which can reach one of the given methods, as only those
+	 * can be on a cycle through them.
+	 */
+	private void markReaching(int[] methods) {
+		final IntStack pending = new IntStack();
+		for (int method : methods) {
+			if (reaching[method] != epoch) {
+				reaching[method] = epoch;
+				pending.push(method);
+			}
+		}
+		while (!pending.isEmpty()) {
+			final int method = pending.pop();
+			for (int i = 0; i < callerCounts[method]; i++) {
+				final int caller = callers[method][i];
+				if (reaching[caller] != epoch) {
+					reaching[caller] = epoch;
+					pending.push(caller);
+				}
+			}
+		}
+	}
+
+	private static final class IntStack {
+		private int[] values = new int[16];
+
+		private int size;
+
+		private void push(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private int pop() {
+			return values[--size];
+		}
+
+		private int peek() {
+			return values[size - 1];
+		}
+
+		private void replace(int value) {
+			values[size - 1] = value;
+		}
+
+		private int get(int index) {
+			return values[index];
+		}
+
+		private int indexOf(int value) {
+			for (int i = size - 1; i >= 0; i--) {
+				if (values[i] == value) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private void truncate(int newSize) {
+			size = newSize;
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private boolean isEmpty() {
+			return size == 0;
+		}
+	}
+}
@@ -1,31 +1,54 @@
 package org.gap.eclipse.jdt.annotation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.stream.Stream;
+import java.util.List;
 
-import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.compiler.BuildContext;
 import org.eclipse.jdt.core.compiler.CompilationParticipant;
 import org.eclipse.jdt.core.compiler.ReconcileContext;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.gap.eclipse.jdt.CorePlugin;
 
 public class MarkerParticipant extends CompilationParticipant {
 	@Override
 	public void reconcile(ReconcileContext context) {
 		if (context.getASTLevel() != ICompilationUnit.NO_AST) {
+			final IResource resource = context.getWorkingCopy().getResource();
+			if (!(resource instanceof IFile)) {
+				return;
+			}
 			try {
-				context.getAST(context.getASTLevel()).accept(new RecursiveASTVistor(context));
+				analyze((IFile) resource, context.getWorkingCopy(), context.getAST(context.getASTLevel()));
 			} catch (JavaModelException e) {
 				CorePlugin.getDefault().logError(e.getMessage(), e);
 			}
 		}
 	}
 
+	/**
+	 * Updates the call graph of the project with the calls of the given unit and
+	 * schedules its markers to be updated with the direct and indirect recursions
+	 * found. The other units declaring methods on cycles which were added or
+	 * removed are analyzed again, so their markers follow.
+	 */
+	static void analyze(IFile file, ICompilationUnit unit, CompilationUnit ast) {
+		final RecursiveASTVistor visitor = new RecursiveASTVistor();
+		ast.accept(visitor);
+		final CallGraph graph = CallGraph.of(unit.getJavaProject());
+		final List<String> otherUnits = new ArrayList<>();
+		visitor.addIndirectMarkers(
+				graph.update(unit.getPrimary().getHandleIdentifier(), visitor.getCalls(), otherUnits));
+		MarkerUpdate.schedule(file, visitor.getMarkers());
+		CorePlugin.getDefault().getRecursionAnalysisJob().enqueue(otherUnits);
+	}
+
 	@Override
 	public boolean isActive(IJavaProject project) {
 		return true;
@@ -38,23 +61,15 @@ public class MarkerParticipant extends CompilationParticipant {
 
 	@Override
 	public void buildStarting(BuildContext[] files, boolean isBatch) {
-		Arrays.stream(files).parallel().flatMap(this::findMarkers).forEach(this::deleteMarker);
-	}
-
-	private void deleteMarker(IMarker marker) {
-		try {
-			marker.delete();
-		} catch (CoreException e) {
-			CorePlugin.getDefault().logError(e.getMessage(), e);
-		}
+		// the markers of the built units are replaced once they are analyzed. After a
+		// clean the call graph is empty, so a batch build analyzes all of its units.
+		final RecursionAnalysisJob job = CorePlugin.getDefault().getRecursionAnalysisJob();
+		Arrays.stream(files).map(f -> JavaCore.create(f.getFile())).filter(ICompilationUnit.class::isInstance)
+				.forEach(u -> job.enqueue((ICompilationUnit) u));
 	}
 
-	private Stream<? extends IMarker> findMarkers(BuildContext context) {
-		try {
-			return Arrays.stream(context.getFile().findMarkers(Markers.MARKER_ID, false, IResource.DEPTH_ONE));
-		} catch (CoreException e) {
-			CorePlugin.getDefault().logError(e.getMessage(), e);
-			return Stream.empty();
-		}
+	@Override
+	public void cleanStarting(IJavaProject project) {
+		CallGraph.remove(project);
 	}
 }
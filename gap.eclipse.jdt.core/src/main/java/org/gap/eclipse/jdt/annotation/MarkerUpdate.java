@@ -0,0 +1,143 @@
+package org.gap.eclipse.jdt.annotation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.Messages;
+
+/**
+ * Brings the markers of a file to the set computed for its latest reconcile.
+ * <p>
+ * The desired markers are compared with the existing ones, and only the
+ * difference is deleted and created in a single workspace operation with the
+ * file as scheduling rule, so each reconcile causes at most one resource
+ * change notification. Updates are applied in the background so reconcile
+ * doesn't wait for a build holding the workspace, and updates for the same
+ * file which were not applied yet are replaced by the latest one.
+ * </p>
+ */
+final class MarkerUpdate implements IWorkspaceRunnable {
+	private static final Map<IFile, Set<Marker>> PENDING = new ConcurrentHashMap<>();
+
+	private static final Job JOB = new Job(Messages.MarkerUpdate_JobName) {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			return applyPending(monitor);
+		}
+	};
+
+	static {
+		JOB.setSystem(true);
+		JOB.setPriority(Job.DECORATE);
+	}
+
+	private final IFile file;
+
+	private final Set<Marker> markers;
+
+	private MarkerUpdate(IFile file, Set<Marker> markers) {
+		this.file = file;
+		this.markers = markers;
+	}
+
+	/**
+	 * Schedules the markers of the given file to be updated to the given ones.
+	 */
+	static void schedule(IFile file, Set<Marker> markers) {
+		PENDING.put(file, markers);
+		JOB.schedule();
+	}
+
+	private static IStatus applyPending(IProgressMonitor monitor) {
+		final Iterator<IFile> files = PENDING.keySet().iterator();
+		while (files.hasNext()) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+
+			final IFile file = files.next();
+			final Set<Marker> markers = PENDING.remove(file);
+			if (markers == null || !file.exists()) {
+				continue;
+			}
+			try {
+				ResourcesPlugin.getWorkspace().run(new MarkerUpdate(file, markers), file, IWorkspace.AVOID_UPDATE,
+						monitor);
+			} catch (CoreException e) {
+				CorePlugin.getDefault().logError(e.getMessage(), e);
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	@Override
+	public void run(IProgressMonitor monitor) throws CoreException {
+		final Set<Marker> missing = new HashSet<>(markers);
+		final List<IMarker> stale = new ArrayList<>();
+		for (IMarker existing : file.findMarkers(Markers.MARKER_ID, false, IResource.DEPTH_ZERO)) {
+			if (!missing.remove(Marker.of(existing))) {
+				stale.add(existing);
+			}
+		}
+
+		if (!stale.isEmpty()) {
+			file.getWorkspace().deleteMarkers(stale.toArray(new IMarker[stale.size()]));
+		}
+		for (Marker marker : missing) {
+			file.createMarker(Markers.MARKER_ID).setAttributes(
+					new String[] { IMarker.CHAR_START, IMarker.CHAR_END, IMarker.MESSAGE },
+					new Object[] { marker.start, marker.end, marker.message });
+		}
+	}
+
+	static final class Marker {
+		private final int start;
+
+		private final int end;
+
+		private final String message;
+
+		Marker(int start, int end, String message) {
+			this.start = start;
+			this.end = end;
+			this.message = message;
+		}
+
+		private static Marker of(IMarker marker) {
+			return new Marker(marker.getAttribute(IMarker.CHAR_START, -1), marker.getAttribute(IMarker.CHAR_END, -1),
+					marker.getAttribute(IMarker.MESSAGE, ""));
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(start, end, message);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Marker)) {
+				return false;
+			}
+			final Marker other = (Marker) obj;
+			return start == other.start && end == other.end && message.equals(other.message);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package org.gap.eclipse.jdt.annotation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.gap.eclipse.jdt.Messages;
+
+/**
+ * Analyzes the units of builds in the background, so the call graph also learns
+ * about units which are not open in an editor. Units which share a changed
+ * cycle with an analyzed unit are analyzed again, and removed units are dropped
+ * from the call graph.
+ */
+public final class RecursionAnalysisJob extends Job implements IElementChangedListener {
+	private final Queue<ICompilationUnit> units = new ConcurrentLinkedQueue<>();
+
+	public RecursionAnalysisJob() {
+		super(Messages.RecursionAnalysisJob_JobName);
+		setSystem(true);
+		setPriority(Job.DECORATE);
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	void enqueue(ICompilationUnit unit) {
+		units.add(unit);
+		schedule(500);
+	}
+
+	/**
+	 * Enqueues the units with the given handle identifiers.
+	 */
+	void enqueue(Collection<String> handles) {
+		if (handles.isEmpty()) {
+			return;
+		}
+		for (String handle : handles) {
+			final IJavaElement element = JavaCore.create(handle);
+			if (element instanceof ICompilationUnit) {
+				units.add((ICompilationUnit) element);
+			}
+		}
+		schedule(500);
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		collectRemoved(event.getDelta());
+	}
+
+	private void collectRemoved(IJavaElementDelta delta) {
+		final IJavaElement element = delta.getElement();
+		if (delta.getKind() == IJavaElementDelta.REMOVED) {
+			if (element instanceof IJavaProject) {
+				CallGraph.remove((IJavaProject) element);
+			} else if (element instanceof ICompilationUnit && !((ICompilationUnit) element).isWorkingCopy()) {
+				enqueue((ICompilationUnit) element);
+			}
+			return;
+		}
+		if (element.getElementType() < IJavaElement.COMPILATION_UNIT) {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				collectRemoved(child);
+			}
+		}
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		final Map<IJavaProject, List<ICompilationUnit>> byProject = new LinkedHashMap<>();
+		ICompilationUnit unit;
+		final List<String> otherUnits = new ArrayList<>();
+		while ((unit = units.poll()) != null) {
+			if (unit.exists()) {
+				final List<ICompilationUnit> projectUnits = byProject.computeIfAbsent(unit.getJavaProject(),
+						p -> new ArrayList<>());
+				if (!projectUnits.contains(unit)) {
+					projectUnits.add(unit);
+				}
+			} else {
+				CallGraph.of(unit.getJavaProject()).remove(unit.getHandleIdentifier(), otherUnits);
+			}
+		}
+		enqueue(otherUnits);
+
+		for (Map.Entry<IJavaProject, List<ICompilationUnit>> entry : byProject.entrySet()) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+
+			final ASTParser parser = ASTParser.newParser(AST.JLS_Latest);
+			parser.setProject(entry.getKey());
+			parser.setResolveBindings(true);
+			parser.setStatementsRecovery(true);
+			parser.createASTs(entry.getValue().toArray(new ICompilationUnit[0]), new String[0], new ASTRequestor() {
+				@Override
+				public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+					if (source.getResource() instanceof IFile) {
+						MarkerParticipant.analyze((IFile) source.getResource(), source, ast);
+					}
+				}
+			}, monitor);
+		}
+		return Status.OK_STATUS;
+	}
+
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		cancel();
+		units.clear();
+	}
+}
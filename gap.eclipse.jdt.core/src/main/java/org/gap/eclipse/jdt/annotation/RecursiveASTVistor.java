@@ -1,57 +1,110 @@
 package org.gap.eclipse.jdt.annotation;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-import org.eclipse.core.resources.IMarker;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.jdt.core.compiler.ReconcileContext;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.MethodInvocation;
-import org.gap.eclipse.jdt.CorePlugin;
 
 class RecursiveASTVistor extends ASTVisitor {
-	private Optional<IMethodBinding> currentMethod = Optional.empty();
-	private ReconcileContext context;
+	private final Deque<Optional<IMethodBinding>> currentMethod = new ArrayDeque<>();
+	private final Set<MarkerUpdate.Marker> markers = new HashSet<>();
+	private final Map<String, Set<String>> calls = new HashMap<>();
+	private final List<CallSite> callSites = new ArrayList<>();
 
-	public RecursiveASTVistor(ReconcileContext context) {
-		this.context = context;
+	public Set<MarkerUpdate.Marker> getMarkers() {
+		return markers;
+	}
+
+	/**
+	 * Returns the binding keys of the methods called by each method declared in
+	 * the visited unit.
+	 */
+	public Map<String, Set<String>> getCalls() {
+		return calls;
+	}
+
+	/**
+	 * Adds the markers for the calls between different methods of the same call
+	 * cycle.
+	 *
+	 * @param cycles the methods on call cycles, mapped to their cycle.
+	 */
+	public void addIndirectMarkers(Map<String, Integer> cycles) {
+		for (CallSite site : callSites) {
+			final Integer cycle = cycles.get(site.caller);
+			if (cycle != null && !site.caller.equals(site.callee) && cycle.equals(cycles.get(site.callee))) {
+				markers.add(new MarkerUpdate.Marker(site.start, site.end,
+						"Indirect recursion of method " + site.name + "()"));
+			}
+		}
 	}
 
 	@Override
 	public boolean visit(MethodDeclaration node) {
-		currentMethod = Optional.ofNullable(node.resolveBinding());
+		final IMethodBinding binding = node.resolveBinding();
+		currentMethod.push(Optional.ofNullable(binding));
+		if (binding != null) {
+			calls.computeIfAbsent(binding.getMethodDeclaration().getKey(), k -> new HashSet<>());
+		}
 		return super.visit(node);
 	}
 
 	@Override
 	public void endVisit(MethodDeclaration node) {
-		currentMethod = Optional.empty();
+		currentMethod.pop();
 		super.endVisit(node);
 	}
 
 	@Override
 	public boolean visit(MethodInvocation node) {
-		if (currentMethod.isPresent()) {
+		if (!currentMethod.isEmpty() && currentMethod.peek().isPresent()) {
 			IMethodBinding binding = node.resolveMethodBinding();
-			if ((binding != null) && binding.getMethodDeclaration().equals(currentMethod.get().getMethodDeclaration())) {
-				createRecursiveMarker(node, context.getWorkingCopy().getResource());
+			if (binding != null) {
+				final IMethodBinding caller = currentMethod.peek().get().getMethodDeclaration();
+				final IMethodBinding callee = binding.getMethodDeclaration();
+				if (callee.equals(caller)) {
+					addRecursiveMarker(node);
+				}
+				addCall(node, caller.getKey(), callee.getKey());
 			}
 		}
 
 		return super.visit(node);
 	}
 
-	private void createRecursiveMarker(MethodInvocation node, IResource resource) {
-		try {
-			IMarker marker = resource.createMarker(Markers.MARKER_ID);
-			marker.setAttribute(IMarker.CHAR_START, node.getStartPosition());
-			marker.setAttribute(IMarker.CHAR_END, node.getStartPosition() + node.getLength());
-			marker.setAttribute(IMarker.MESSAGE, "Recursion of method " + node.getName() + "()");
-		} catch (CoreException e) {
-			CorePlugin.getDefault().logError(e.getMessage(), e);
+	private void addRecursiveMarker(MethodInvocation node) {
+		markers.add(new MarkerUpdate.Marker(node.getStartPosition(), node.getStartPosition() + node.getLength(),
+				"Recursion of method " + node.getName() + "()"));
+	}
+
+	private void addCall(MethodInvocation node, String caller, String callee) {
+		calls.computeIfAbsent(caller, k -> new HashSet<>()).add(callee);
+		callSites.add(new CallSite(caller, callee, node));
+	}
+
+	private static final class CallSite {
+		private final String caller;
+		private final String callee;
+		private final int start;
+		private final int end;
+		private final String name;
+
+		private CallSite(String caller, String callee, MethodInvocation node) {
+			this.caller = caller;
+			this.callee = callee;
+			this.start = node.getStartPosition();
+			this.end = node.getStartPosition() + node.getLength();
+			this.name = node.getName().getIdentifier();
 		}
 	}
 }
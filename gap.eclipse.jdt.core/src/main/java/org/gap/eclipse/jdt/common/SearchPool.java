@@ -0,0 +1,269 @@
+package org.gap.eclipse.jdt.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+
+/**
+ * Bounded pool which runs the searches of the smart completion computers.
+ * <p>
+ * Searches are grouped by their kind and compilation unit. A search which is
+ * requested again while the same one is still running is joined instead of
+ * started again, and a search for a different offset or different arguments
+ * supersedes the running one of the same group, which is then canceled. This
+ * keeps typing bursts from piling up searches behind each other. When more
+ * searches are queued than the pool holds, the oldest queued one is canceled.
+ * </p>
+ * <p>
+ * A search is canceled when the monitors of all the invocations which
+ * submitted or joined it are canceled.
+ * </p>
+ * <p>
+ * A search can split itself into parts which run in parallel on a second
+ * bounded set of threads, see {@link #runParts(List, IProgressMonitor)}.
+ * </p>
+ */
+public final class SearchPool {
+	private static final int THREADS = Integer.getInteger("org.gap.eclipse.jdt.types.searchThreads",
+			Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+	private static final int QUEUE_SIZE = Integer.getInteger("org.gap.eclipse.jdt.types.searchQueueSize",
+			THREADS * 4);
+
+	private static final int PART_THREADS = Integer.getInteger("org.gap.eclipse.jdt.types.searchPartThreads",
+			Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1)));
+
+	private final ThreadPoolExecutor executor;
+
+	private final ThreadPoolExecutor partExecutor;
+
+	private final Map<String, Task<?>> inFlight = new ConcurrentHashMap<>();
+
+	public SearchPool() {
+		final AtomicInteger count = new AtomicInteger();
+		final ThreadFactory factory = r -> {
+			final Thread thread = new Thread(r, "Smart Completion Search-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(QUEUE_SIZE), factory, (r, e) -> {
+					// a discarded task must be done, its callers wait for it.
+					final Runnable oldest = e.getQueue().poll();
+					if (oldest instanceof Future) {
+						((Future<?>) oldest).cancel(false);
+					}
+					if (!e.isShutdown()) {
+						e.execute(r);
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+
+		final AtomicInteger partCount = new AtomicInteger();
+		// parts of a search are never dropped, a search runs its own parts when the queue is full.
+		partExecutor = new ThreadPoolExecutor(PART_THREADS, PART_THREADS, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(PART_THREADS * 4), r -> {
+					final Thread thread = new Thread(r, "Smart Completion Search Part-" + partCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		partExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Submits a search.
+	 *
+	 * @param kind the kind of the search, searches of the same kind on the same
+	 *             compilation unit supersede each other.
+	 * @param unit the compilation unit in which completion was invoked.
+	 * @param offset the invocation offset.
+	 * @param args the arguments which makes the search distinct.
+	 * @param sink where the search collects its results.
+	 * @param monitor the monitor of the invocation, may be <code>null</code>.
+	 * @param work the search, which receives the sink and a monitor which is
+	 *             canceled when the search is superseded or all its invocations
+	 *             are canceled.
+	 * @return the submitted task, or the running task which performs the same
+	 *         search, in which case the sink of that task should be used.
+	 */
+	public <S> Task<S> submit(String kind, ICompilationUnit unit, int offset, Object[] args, S sink,
+			IProgressMonitor monitor, BiConsumer<S, IProgressMonitor> work) {
+		final String group = kind + "|" + (unit != null ? unit.getHandleIdentifier() : "");
+		final Task<S> task = new Task<>(offset, args, sink, monitor);
+		task.future = new FutureTask<Void>(() -> {
+			if (!task.monitor.isCanceled()) {
+				work.accept(sink, task.monitor);
+			}
+		}, null) {
+			@Override
+			protected void done() {
+				// also when the task was canceled before it started.
+				inFlight.remove(group, task);
+			}
+		};
+
+		while (true) {
+			final Task<?> running = inFlight.putIfAbsent(group, task);
+			if (running == null) {
+				break;
+			}
+			if (running.isSameSearch(offset, args) && !running.future.isDone()) {
+				@SuppressWarnings("unchecked")
+				final Task<S> joined = (Task<S>) running;
+				joined.monitor.join(monitor);
+				return joined;
+			}
+			if (inFlight.replace(group, running, task)) {
+				running.cancel();
+				executor.purge();
+				break;
+			}
+		}
+
+		executor.execute(task.future);
+		return task;
+	}
+
+	/**
+	 * Runs the parts of a search in parallel and waits until all of them are
+	 * done. Parts are started in the given order, so the first ones are the first
+	 * to deliver results. Parts which did not start yet when the monitor is
+	 * canceled are skipped, the running ones are expected to check the monitor.
+	 * Each part gets its own monitor which only forwards the cancellation of the
+	 * given one, since the progress of the parts is reported concurrently.
+	 */
+	public void runParts(List<? extends Consumer<IProgressMonitor>> parts, IProgressMonitor monitor)
+			throws InterruptedException {
+		final List<Future<?>> futures = new ArrayList<>(parts.size());
+		for (Consumer<IProgressMonitor> part : parts) {
+			final IProgressMonitor partMonitor = new PartMonitor(monitor);
+			futures.add(partExecutor.submit(() -> {
+				if (!partMonitor.isCanceled()) {
+					part.accept(partMonitor);
+				}
+			}));
+		}
+
+		try {
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} finally {
+			futures.forEach(f -> f.cancel(false));
+		}
+	}
+
+	public void close() {
+		inFlight.values().forEach(Task::cancel);
+		inFlight.clear();
+		executor.shutdownNow();
+		partExecutor.shutdownNow();
+	}
+
+	public static final class Task<S> {
+		private final int offset;
+
+		private final Object[] args;
+
+		private final S sink;
+
+		private final TaskMonitor monitor;
+
+		private FutureTask<?> future;
+
+		private Task(int offset, Object[] args, S sink, IProgressMonitor invocation) {
+			this.offset = offset;
+			this.args = args;
+			this.sink = sink;
+			this.monitor = new TaskMonitor(invocation);
+		}
+
+		private boolean isSameSearch(int offset, Object[] args) {
+			return this.offset == offset && Arrays.equals(this.args, args);
+		}
+
+		private void cancel() {
+			monitor.setCanceled(true);
+			future.cancel(false);
+		}
+
+		public S getSink() {
+			return sink;
+		}
+
+		public Future<?> getFuture() {
+			return future;
+		}
+	}
+
+	/**
+	 * Monitor of a task, which is canceled when the task is superseded or when
+	 * the monitors of all invocations waiting for the task are canceled.
+	 */
+	private static final class TaskMonitor extends NullProgressMonitor {
+		private final List<IProgressMonitor> invocations = new CopyOnWriteArrayList<>();
+
+		private TaskMonitor(IProgressMonitor invocation) {
+			join(invocation);
+		}
+
+		private void join(IProgressMonitor invocation) {
+			if (invocation != null) {
+				invocations.add(invocation);
+			}
+		}
+
+		@Override
+		public boolean isCanceled() {
+			if (super.isCanceled()) {
+				return true;
+			}
+			if (invocations.isEmpty()) {
+				return false;
+			}
+			for (IProgressMonitor invocation : invocations) {
+				if (!invocation.isCanceled()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static final class PartMonitor extends NullProgressMonitor {
+		private final IProgressMonitor search;
+
+		private PartMonitor(IProgressMonitor search) {
+			this.search = search;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || search.isCanceled();
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package org.gap.eclipse.jdt.common;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.jdt.core.Signature;
+
+/**
+ * Reads a type signature in place from a char array, so signatures can be
+ * compared on the matching path of a search without creating the strings and
+ * arrays {@link Signature} creates for its results.
+ * <p>
+ * Positions are indexes into the array, and the parts of a signature are
+ * ranges between them. A cursor created by {@link #SignatureCursor()} owns its
+ * array and is {@link #reset(String) reset} to each signature it reads, so one
+ * cursor per thread reads any number of signatures without allocating. A
+ * cursor wrapping an array is not changed after it was created and can be
+ * shared between threads.
+ * </p>
+ */
+public final class SignatureCursor {
+	private char[] chars;
+
+	private int length;
+
+	// interned erasure name of the current signature, computed on first use
+	// by cursors which are reset, and when created by cursors wrapping an array.
+	private String erasureName;
+
+	public SignatureCursor() {
+		this.chars = new char[64];
+	}
+
+	public SignatureCursor(char[] signature) {
+		this.chars = signature;
+		this.length = signature.length;
+		// computed now since the cursor may be shared between threads.
+		this.erasureName = erasureName();
+	}
+
+	public static SignatureCursor of(String signature) {
+		return new SignatureCursor(signature.toCharArray());
+	}
+
+	/**
+	 * Copies the given signature into the array of this cursor.
+	 */
+	public SignatureCursor reset(String signature) {
+		final int size = signature.length();
+		if (size > chars.length) {
+			chars = new char[Math.max(size, chars.length * 2)];
+		}
+		signature.getChars(0, size, chars, 0);
+		length = size;
+		erasureName = null;
+		return this;
+	}
+
+	/**
+	 * Replaces a char of the signature in place, like {@link String#replace(char, char)}.
+	 */
+	public SignatureCursor replace(char oldChar, char newChar) {
+		for (int i = 0; i < length; i++) {
+			if (chars[i] == oldChar) {
+				chars[i] = newChar;
+			}
+		}
+		erasureName = null;
+		return this;
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public char charAt(int index) {
+		return chars[index];
+	}
+
+	/**
+	 * Returns the kind of the signature, as in {@link Signature#getTypeSignatureKind(String)}.
+	 */
+	public int kind() {
+		if (length == 0) {
+			throw new IllegalArgumentException();
+		}
+		switch (chars[0]) {
+		case Signature.C_ARRAY:
+			return Signature.ARRAY_TYPE_SIGNATURE;
+		case Signature.C_RESOLVED:
+		case Signature.C_UNRESOLVED:
+			return Signature.CLASS_TYPE_SIGNATURE;
+		case Signature.C_TYPE_VARIABLE:
+			return Signature.TYPE_VARIABLE_SIGNATURE;
+		case Signature.C_BOOLEAN:
+		case Signature.C_BYTE:
+		case Signature.C_CHAR:
+		case Signature.C_DOUBLE:
+		case Signature.C_FLOAT:
+		case Signature.C_INT:
+		case Signature.C_LONG:
+		case Signature.C_SHORT:
+		case Signature.C_VOID:
+			return Signature.BASE_TYPE_SIGNATURE;
+		case Signature.C_STAR:
+		case Signature.C_SUPER:
+		case Signature.C_EXTENDS:
+			return Signature.WILDCARD_TYPE_SIGNATURE;
+		case Signature.C_CAPTURE:
+			return Signature.CAPTURE_TYPE_SIGNATURE;
+		default:
+			throw new IllegalArgumentException(new String(chars, 0, length));
+		}
+	}
+
+	/**
+	 * Returns the position after the type signature starting at the given
+	 * position, including its type arguments.
+	 */
+	public int typeEnd(int start) {
+		if (start >= length) {
+			throw new IllegalArgumentException(new String(chars, 0, length));
+		}
+		switch (chars[start]) {
+		case Signature.C_STAR:
+			return start + 1;
+		case Signature.C_EXTENDS:
+		case Signature.C_SUPER:
+		case Signature.C_ARRAY:
+		case Signature.C_CAPTURE:
+			return typeEnd(start + 1);
+		case Signature.C_RESOLVED:
+		case Signature.C_UNRESOLVED:
+		case Signature.C_TYPE_VARIABLE:
+			int depth = 0;
+			for (int i = start + 1; i < length; i++) {
+				switch (chars[i]) {
+				case Signature.C_GENERIC_START:
+					depth++;
+					break;
+				case Signature.C_GENERIC_END:
+					depth--;
+					break;
+				case Signature.C_NAME_END:
+					if (depth == 0) {
+						return i + 1;
+					}
+					break;
+				default:
+					break;
+				}
+			}
+			throw new IllegalArgumentException(new String(chars, 0, length));
+		default:
+			return start + 1;
+		}
+	}
+
+	/**
+	 * Returns the position of the first type argument of the innermost type of
+	 * the signature, or -1 if it has no type arguments. The arguments follow
+	 * each other up to the {@link Signature#C_GENERIC_END} of the list, as in
+	 * {@link Signature#getTypeArguments(String)}.
+	 */
+	public int argumentsStart() {
+		if (length < 2 || chars[length - 2] != Signature.C_GENERIC_END) {
+			return -1;
+		}
+		int depth = 1;
+		for (int i = length - 3; i >= 0; i--) {
+			if (chars[i] == Signature.C_GENERIC_END) {
+				depth++;
+			} else if (chars[i] == Signature.C_GENERIC_START && --depth == 0) {
+				return i + 1;
+			}
+		}
+		throw new IllegalArgumentException(new String(chars, 0, length));
+	}
+
+	/**
+	 * Returns the number of type arguments starting at the given position.
+	 */
+	public int argumentCount(int argumentsStart) {
+		if (argumentsStart < 0) {
+			return 0;
+		}
+		int count = 0;
+		for (int i = argumentsStart; chars[i] != Signature.C_GENERIC_END; i = typeEnd(i)) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns whether the type signature in the given range has a qualifier,
+	 * that is {@link Signature#getSignatureQualifier(String)} is not empty.
+	 */
+	public boolean hasQualifier(int start, int end) {
+		for (int i = start; i < end; i++) {
+			switch (chars[i]) {
+			case Signature.C_DOT:
+				return true;
+			case Signature.C_GENERIC_START:
+			case Signature.C_DOLLAR:
+				return false;
+			default:
+				break;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the ranges of the two signatures have the same chars.
+	 */
+	public static boolean regionEquals(SignatureCursor left, int leftStart, int leftEnd, SignatureCursor right,
+			int rightStart, int rightEnd) {
+		if (leftEnd - leftStart != rightEnd - rightStart) {
+			return false;
+		}
+		for (int i = leftStart, j = rightStart; i < leftEnd; i++, j++) {
+			if (left.chars[i] != right.chars[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether both signatures have the same erasure, as in
+	 * {@link Signature#getTypeErasure(String)}.
+	 */
+	public boolean erasureEquals(SignatureCursor other) {
+		int i = skipArguments(0);
+		int j = other.skipArguments(0);
+		while (i < length && j < other.length) {
+			if (chars[i] != other.chars[j]) {
+				return false;
+			}
+			i = skipArguments(i + 1);
+			j = other.skipArguments(j + 1);
+		}
+		return i == length && j == other.length;
+	}
+
+	private int skipArguments(int position) {
+		int i = position;
+		while (i < length && chars[i] == Signature.C_GENERIC_START) {
+			int depth = 1;
+			i++;
+			while (i < length && depth > 0) {
+				if (chars[i] == Signature.C_GENERIC_START) {
+					depth++;
+				} else if (chars[i] == Signature.C_GENERIC_END) {
+					depth--;
+				}
+				i++;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the qualified name of the erasure of a class type signature, with
+	 * member types separated by dots, or <code>null</code> for other kinds of
+	 * signatures.
+	 * <p>
+	 * Names are interned in a bounded table which is cleared when it is full, so
+	 * equal names are the same instance only if no clear happened in between.
+	 * Compare them with {@link String#equals(Object)}.
+	 * </p>
+	 */
+	public String erasureName() {
+		if (erasureName == null && length > 2
+				&& (chars[0] == Signature.C_RESOLVED || chars[0] == Signature.C_UNRESOLVED)
+				&& chars[length - 1] == Signature.C_NAME_END) {
+			erasureName = ErasureNames.intern(this);
+		}
+		return erasureName;
+	}
+
+	@Override
+	public String toString() {
+		return new String(chars, 0, length);
+	}
+
+	/**
+	 * Interned erasure names, looked up by their chars so a known name is found
+	 * without creating a string.
+	 */
+	private static final class ErasureNames {
+		private static final int MAX_NAMES = Integer.getInteger("org.gap.eclipse.jdt.common.maxErasureNames",
+				1 << 16);
+
+		private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[128]);
+
+		private static volatile AtomicReferenceArray<String> table = new AtomicReferenceArray<>(1024);
+
+		// guarded by ErasureNames.class
+		private static int size;
+
+		private static String intern(SignatureCursor signature) {
+			char[] name = SCRATCH.get();
+			if (name.length < signature.length) {
+				name = new char[signature.length];
+				SCRATCH.set(name);
+			}
+
+			// the same chars and hash as the string of the name.
+			int nameLength = 0;
+			int hash = 0;
+			for (int i = signature.skipArguments(1); i < signature.length - 1; i = signature.skipArguments(i + 1)) {
+				final char c = signature.chars[i] == Signature.C_DOLLAR ? Signature.C_DOT : signature.chars[i];
+				name[nameLength++] = c;
+				hash = 31 * hash + c;
+			}
+
+			final String found = find(table, name, nameLength, hash);
+			return found != null ? found : add(name, nameLength, hash);
+		}
+
+		private static String find(AtomicReferenceArray<String> names, char[] name, int nameLength, int hash) {
+			final int mask = names.length() - 1;
+			for (int i = hash & mask;; i = (i + 1) & mask) {
+				final String candidate = names.get(i);
+				if (candidate == null) {
+					return null;
+				}
+				if (candidate.hashCode() == hash && matches(candidate, name, nameLength)) {
+					return candidate;
+				}
+			}
+		}
+
+		private static boolean matches(String candidate, char[] name, int nameLength) {
+			if (candidate.length() != nameLength) {
+				return false;
+			}
+			for (int i = 0; i < nameLength; i++) {
+				if (candidate.charAt(i) != name[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static synchronized String add(char[] name, int nameLength, int hash) {
+			final String found = find(table, name, nameLength, hash);
+			if (found != null) {
+				return found;
+			}
+
+			AtomicReferenceArray<String> names = table;
+			if (size >= MAX_NAMES) {
+				// names are only interned to compare and look them up faster, forget them all.
+				names = new AtomicReferenceArray<>(1024);
+				size = 0;
+			} else if (size * 2 >= names.length()) {
+				names = rehash(names, names.length() * 2);
+			}
+
+			final String added = new String(name, 0, nameLength);
+			insert(names, added);
+			size++;
+			table = names;
+			return added;
+		}
+
+		private static AtomicReferenceArray<String> rehash(AtomicReferenceArray<String> names, int capacity) {
+			final AtomicReferenceArray<String> rehashed = new AtomicReferenceArray<>(capacity);
+			for (int i = 0; i < names.length(); i++) {
+				final String name = names.get(i);
+				if (name != null) {
+					insert(rehashed, name);
+				}
+			}
+			return rehashed;
+		}
+
+		private static void insert(AtomicReferenceArray<String> names, String name) {
+			final int mask = names.length() - 1;
+			int i = name.hashCode() & mask;
+			while (!names.compareAndSet(i, null, name)) {
+				i = (i + 1) & mask;
+			}
+		}
+	}
+}
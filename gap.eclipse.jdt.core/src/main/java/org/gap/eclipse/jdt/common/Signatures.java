@@ -16,47 +16,61 @@ public final class Signatures {
 	}
 	
 	public static boolean isAssignable(String signature, String toSignature) {
+		return isAssignable(SignatureCursor.of(signature), SignatureCursor.of(toSignature));
+	}
+
+	/**
+	 * Same as {@link #isAssignable(String, String)}, but reads the signatures in
+	 * place.
+	 */
+	public static boolean isAssignable(SignatureCursor signature, SignatureCursor toSignature) {
 		// check if the both signatures have the same erasure types
-		if(!Signature.getTypeErasure(signature).equals(Signature.getTypeErasure(toSignature))) {
+		if(!signature.erasureEquals(toSignature)) {
 			return false;
 		}
 
 		// check if the both signatures have the same type parameters or at least to-side is open like (X<Object> = X)
-		String[] sigArguments = Signature.getTypeArguments(signature);
-		String[] toArguments = Signature.getTypeArguments(toSignature);
-		
-		if(toArguments.length > 0 && sigArguments.length != toArguments.length) {
+		final int sigArguments = signature.argumentsStart();
+		final int toArguments = toSignature.argumentsStart();
+		if(toArguments >= 0 && signature.argumentCount(sigArguments) != toSignature.argumentCount(toArguments)) {
 			return false;
 		}
+		if(toArguments < 0) {
+			return true;
+		}
 		
-		for(int i = 0; i < toArguments.length; i++) {
-			final String toArg = toArguments[i];
-			final String sigArg = sigArguments[i];
+		for(int sigArg = sigArguments, toArg = toArguments; toSignature.charAt(toArg) != Signature.C_GENERIC_END;) {
+			final int sigEnd = signature.typeEnd(sigArg);
+			final int toEnd = toSignature.typeEnd(toArg);
 			
-			if(!toArg.equals(sigArg)) {
-				// check if the sigArg is a upper bound
-				int startSigOffset = 0;
+			if(!SignatureCursor.regionEquals(signature, sigArg, sigEnd, toSignature, toArg, toEnd)) {
 				// if its upper bound then try to ignore it for now
-				if(sigArg.startsWith("+")) {
-					startSigOffset = 1;
-				}
-				if(!Signature.getSignatureQualifier(sigArg.substring(startSigOffset)).isEmpty()) {
+				final int sigStart = signature.charAt(sigArg) == Signature.C_EXTENDS ? sigArg + 1 : sigArg;
+				if(signature.hasQualifier(sigStart, sigEnd)) {
 					// if not type param then the type should match or assignable
-					if(Signature.getSignatureQualifier(toArg).isEmpty()) {
+					if(!toSignature.hasQualifier(toArg, toEnd)) {
 						// on the toArg we have type parameter to it assignable
 						return true;
 					}
 					
-					if(!toArg.equals(sigArg.substring(startSigOffset))) {
+					if(!SignatureCursor.regionEquals(signature, sigStart, sigEnd, toSignature, toArg, toEnd)) {
 						return false;
 					}
 				}
 			}
+			sigArg = sigEnd;
+			toArg = toEnd;
 		}
 		return true;
 	}
 
-	public static String getFullQualifiedResolvedReturnType(IMethod method) throws JavaModelException {
+	/**
+	 * Reads the return type of the method into the given cursor, with the
+	 * unresolved type of a source method resolved and member types separated by
+	 * dots.
+	 */
+	public static SignatureCursor getFullQualifiedResolvedReturnType(IMethod method, SignatureCursor cursor)
+			throws JavaModelException {
 		final String returnType = method.getReturnType();
 
 		if(returnType.startsWith("Q")) {
@@ -65,11 +79,13 @@ public final class Signatures {
 			if(typeParamIndex > -1) {
 				simpleName = simpleName.substring(0, typeParamIndex);
 			}
-			String resolvedType = Signature.toQualifiedName(
-					method.getDeclaringType().resolveType(Signature.toString(returnType))[0]);
-			return returnType.replace(simpleName, resolvedType).replace('Q', 'L');
+			final String[][] resolved = method.getDeclaringType().resolveType(Signature.toString(returnType));
+			if(resolved == null) {
+				return cursor.reset(returnType);
+			}
+			return cursor.reset(returnType.replace(simpleName, Signature.toQualifiedName(resolved[0])).replace('Q', 'L'));
 		}
-		return returnType.replace('$', '.');
+		return cursor.reset(returnType).replace('$', '.');
 	}
 	
 	public static boolean isNoOfTypeParametersEqual(IType t, String sigRight) {
@@ -80,13 +96,35 @@ public final class Signatures {
 				return false;
 			}
 			
-			List<String> rightArguments = getTypeParametersFromTypeSignature(sigRight);	
-			return leftArguments.length == rightArguments.size();
+			return leftArguments.length == countTypeParameters(sigRight);
 		} catch (JavaModelException e) {
 			return false;
 		}
 	}
 	
+	/**
+	 * Returns the size of {@link #getTypeParametersFromTypeSignature(String)}
+	 * without collecting the parameters.
+	 */
+	static int countTypeParameters(String typeSignature) {
+		int count = 0;
+		int ltCount = 0;
+		for (int i = 0; i < typeSignature.length(); i++) {
+			final char c = typeSignature.charAt(i);
+			if(c == '<') {
+				ltCount++;
+			} else if(c == '>') {
+				if(ltCount == 1) {
+					count++;
+				}
+				ltCount--;
+			} else if(c == ',' && ltCount == 1) {
+				count++;
+			}
+		}
+		return count;
+	}
+
 	static List<String> getTypeParametersFromTypeSignature(String typeSignature) {
 		char[] chars = typeSignature.toCharArray();
 		List<String> parameters = new ArrayList<>();
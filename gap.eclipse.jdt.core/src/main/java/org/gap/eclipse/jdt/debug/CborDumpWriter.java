@@ -0,0 +1,133 @@
+package org.gap.eclipse.jdt.debug;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a dump as a CBOR (RFC 8949) data item. Objects and arrays are
+ * written with indefinite lengths, so nothing has to be buffered until they
+ * end, and numbers take their shortest integer encoding.
+ */
+class CborDumpWriter implements DumpWriter {
+	private static final int UNSIGNED = 0;
+
+	private static final int NEGATIVE = 1 << 5;
+
+	private static final int BYTES = 2 << 5;
+
+	private static final int TEXT = 3 << 5;
+
+	private static final int INDEFINITE_ARRAY = 0x9f;
+
+	private static final int INDEFINITE_MAP = 0xbf;
+
+	private static final int FALSE = 0xf4;
+
+	private static final int TRUE = 0xf5;
+
+	private static final int DOUBLE = 0xfb;
+
+	private static final int BREAK = 0xff;
+
+	private final DataOutputStream out;
+
+	CborDumpWriter(OutputStream out) {
+		this.out = new DataOutputStream(out);
+	}
+
+	@Override
+	public DumpWriter beginObject() throws IOException {
+		out.write(INDEFINITE_MAP);
+		return this;
+	}
+
+	@Override
+	public DumpWriter endObject() throws IOException {
+		out.write(BREAK);
+		return this;
+	}
+
+	@Override
+	public DumpWriter beginArray() throws IOException {
+		out.write(INDEFINITE_ARRAY);
+		return this;
+	}
+
+	@Override
+	public DumpWriter endArray() throws IOException {
+		out.write(BREAK);
+		return this;
+	}
+
+	@Override
+	public DumpWriter name(String name) throws IOException {
+		return value(name);
+	}
+
+	@Override
+	public DumpWriter value(String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeHead(TEXT, bytes.length);
+		out.write(bytes);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(long value) throws IOException {
+		if (value >= 0) {
+			writeHead(UNSIGNED, value);
+		} else {
+			writeHead(NEGATIVE, -1 - value);
+		}
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(double value) throws IOException {
+		out.write(DOUBLE);
+		out.writeDouble(value);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(boolean value) throws IOException {
+		out.write(value ? TRUE : FALSE);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(byte[] value) throws IOException {
+		writeHead(BYTES, value.length);
+		out.write(value);
+		return this;
+	}
+
+	/**
+	 * Writes the initial byte of a data item with the given major type, followed
+	 * by its argument in as few bytes as it fits in.
+	 */
+	private void writeHead(int majorType, long argument) throws IOException {
+		if (argument < 24) {
+			out.write(majorType | (int) argument);
+		} else if (argument < 1L << 8) {
+			out.write(majorType | 24);
+			out.write((int) argument);
+		} else if (argument < 1L << 16) {
+			out.write(majorType | 25);
+			out.writeShort((int) argument);
+		} else if (argument < 1L << 32) {
+			out.write(majorType | 26);
+			out.writeInt((int) argument);
+		} else {
+			out.write(majorType | 27);
+			out.writeLong(argument);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,62 @@
+package org.gap.eclipse.jdt.debug;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The file formats a variable can be dumped to, chosen by the extension of the
+ * file.
+ */
+enum DumpFormat {
+	JSON("JSON Document", "json"),
+	CBOR("CBOR Binary Document", "cbor"),
+	NDJSON("Newline Delimited JSON Node Table", "ndjson");
+
+	private final String description;
+
+	private final String extension;
+
+	private DumpFormat(String description, String extension) {
+		this.description = description;
+		this.extension = extension;
+	}
+
+	String getDescription() {
+		return description;
+	}
+
+	String getExtension() {
+		return extension;
+	}
+
+	DumpWriter open(Path file) throws IOException {
+		switch (this) {
+		case CBOR:
+			return new CborDumpWriter(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+		case NDJSON:
+			return new NdjsonDumpWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+		default:
+			return new JsonDumpWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Returns the format with the extension of the given file name, or
+	 * <code>null</code> if there is none.
+	 */
+	static DumpFormat forFileName(String fileName) {
+		final int dot = fileName.lastIndexOf('.');
+		if (dot != -1) {
+			final String extension = fileName.substring(dot + 1);
+			for (DumpFormat format : values()) {
+				if (format.extension.equalsIgnoreCase(extension)) {
+					return format;
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -1,8 +1,8 @@
 
 package org.gap.eclipse.jdt.debug;
 
-import java.io.FileWriter;
-import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.DebugException;
@@ -17,9 +17,6 @@ import org.eclipse.ui.IViewPart;
 import org.eclipse.ui.PlatformUI;
 import org.gap.eclipse.jdt.CorePlugin;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-
 public class DumpVariableAction implements IViewActionDelegate {
 
 	private ISelection selection;
@@ -37,8 +34,16 @@ public class DumpVariableAction implements IViewActionDelegate {
 			if (obj instanceof IJavaVariable) {
 				try {
 					final IJavaVariable variable = (IJavaVariable) obj;
-					final JsonObject jsonObject = generator.construct(variable);
-					saveToFile(jsonObject, fileName(variable));
+					final FileDialog dialog = createFileDialog(fileName(variable));
+					String nameToSave = dialog.open();
+					if (nameToSave != null) {
+						DumpFormat format = DumpFormat.forFileName(nameToSave);
+						if (format == null) {
+							format = DumpFormat.values()[Math.max(0, dialog.getFilterIndex())];
+							nameToSave = nameToSave + "." + format.getExtension();
+						}
+						saveToFile(variable, Paths.get(nameToSave), format);
+					}
 				} catch (CoreException e) {
 					CorePlugin.getDefault().logError("Error constructing JSON String", e);
 				}
@@ -56,24 +61,28 @@ public class DumpVariableAction implements IViewActionDelegate {
 	}
 
 	private String fileName(IJavaVariable variable) throws DebugException {
-		return String.format("debug_dump_%s_%s.json", variable.getReferenceTypeName(), variable.getName());
+		return String.format("debug_dump_%s_%s", variable.getReferenceTypeName(), variable.getName());
 	}
 
-	private void saveToFile(JsonObject jsonObject, String fileName) {
+	private FileDialog createFileDialog(String fileName) {
 		FileDialog dialog = new FileDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(), SWT.SAVE);
 		dialog.setOverwrite(true);
 		dialog.setFileName(fileName);
 		dialog.setText("Dump Variable");
-		String nameToSave = dialog.open();
 
-		if (nameToSave != null) {
-			Gson gson = new Gson();
-			try (FileWriter writer = new FileWriter(nameToSave)) {
-				gson.toJson(jsonObject, writer);
-			} catch (IOException e) {
-				CorePlugin.getDefault().logError("Error writing file to disk", e);
-			}
+		final DumpFormat[] formats = DumpFormat.values();
+		final String[] extensions = new String[formats.length];
+		final String[] names = new String[formats.length];
+		for (int i = 0; i < formats.length; i++) {
+			extensions[i] = "*." + formats[i].getExtension();
+			names[i] = formats[i].getDescription() + " (" + extensions[i] + ")";
 		}
+		dialog.setFilterExtensions(extensions);
+		dialog.setFilterNames(names);
+		return dialog;
+	}
 
+	private void saveToFile(IJavaVariable variable, Path file, DumpFormat format) {
+		new DumpVariableJob(generator, variable, file, format).schedule();
 	}
 }
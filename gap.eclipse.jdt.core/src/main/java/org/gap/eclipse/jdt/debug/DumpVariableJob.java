@@ -0,0 +1,62 @@
+package org.gap.eclipse.jdt.debug;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.debug.core.IJavaVariable;
+import org.gap.eclipse.jdt.CorePlugin;
+
+/**
+ * Streams a variable to a file in the background, deleting the partial file if
+ * the dump is canceled or fails.
+ */
+class DumpVariableJob extends Job {
+	private final JsonGenerator generator;
+
+	private final IJavaVariable variable;
+
+	private final Path file;
+
+	private final DumpFormat format;
+
+	DumpVariableJob(JsonGenerator generator, IJavaVariable variable, Path file, DumpFormat format) {
+		super("Dumping " + variable.getName());
+		this.generator = generator;
+		this.variable = variable;
+		this.file = file;
+		this.format = format;
+		setUser(true);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+		try (DumpWriter writer = format.open(file)) {
+			// a truncated dump is kept, with a warning.
+			return generator.write(variable, writer, monitor);
+		} catch (OperationCanceledException e) {
+			deleteFile();
+			return Status.CANCEL_STATUS;
+		} catch (CoreException | IOException e) {
+			deleteFile();
+			return new Status(IStatus.ERROR, CorePlugin.PLUGIN_ID, "Error writing file to disk", e);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	private void deleteFile() {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			CorePlugin.getDefault().logError("Error deleting canceled dump", e);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package org.gap.eclipse.jdt.debug;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming writer of a variable dump, with the structure of a JSON document.
+ * Implementations write each call to the underlying stream as it is made, so
+ * the size of a dump is not bounded by memory.
+ */
+public interface DumpWriter extends Closeable {
+	DumpWriter beginObject() throws IOException;
+
+	DumpWriter endObject() throws IOException;
+
+	DumpWriter beginArray() throws IOException;
+
+	DumpWriter endArray() throws IOException;
+
+	/**
+	 * Writes the name of the next property of the current object.
+	 */
+	DumpWriter name(String name) throws IOException;
+
+	DumpWriter value(String value) throws IOException;
+
+	DumpWriter value(long value) throws IOException;
+
+	/**
+	 * Writes a number, which must be finite.
+	 */
+	DumpWriter value(double value) throws IOException;
+
+	DumpWriter value(boolean value) throws IOException;
+
+	/**
+	 * Writes raw bytes, as a base64 string in text formats.
+	 */
+	DumpWriter value(byte[] value) throws IOException;
+}
@@ -0,0 +1,83 @@
+package org.gap.eclipse.jdt.debug;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Base64;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a dump as a single JSON document.
+ */
+class JsonDumpWriter implements DumpWriter {
+	private final JsonWriter writer;
+
+	JsonDumpWriter(Writer out) {
+		this.writer = new JsonWriter(out);
+	}
+
+	@Override
+	public DumpWriter beginObject() throws IOException {
+		writer.beginObject();
+		return this;
+	}
+
+	@Override
+	public DumpWriter endObject() throws IOException {
+		writer.endObject();
+		return this;
+	}
+
+	@Override
+	public DumpWriter beginArray() throws IOException {
+		writer.beginArray();
+		return this;
+	}
+
+	@Override
+	public DumpWriter endArray() throws IOException {
+		writer.endArray();
+		return this;
+	}
+
+	@Override
+	public DumpWriter name(String name) throws IOException {
+		writer.name(name);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(String value) throws IOException {
+		writer.value(value);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(long value) throws IOException {
+		writer.value(value);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(double value) throws IOException {
+		writer.value(value);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(boolean value) throws IOException {
+		writer.value(value);
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(byte[] value) throws IOException {
+		writer.value(Base64.getEncoder().encodeToString(value));
+		return this;
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
@@ -1,70 +1,120 @@
 package org.gap.eclipse.jdt.debug;
 
+import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILogicalStructureType;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.jdt.debug.core.IJavaArray;
+import org.eclipse.jdt.debug.core.IJavaObject;
 import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
 import org.eclipse.jdt.debug.core.IJavaValue;
 import org.eclipse.jdt.debug.core.IJavaVariable;
+import org.gap.eclipse.jdt.CorePlugin;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterators;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 
+/**
+ * Writes a variable as a JSON structured document while walking its value, so
+ * only the objects and arrays on the path to the current value are held in
+ * memory. The document is encoded by the given {@link DumpWriter}.
+ * <p>
+ * Objects are identified by their unique id in the target VM. The first time
+ * an object is written it gets an <code>$id</code> property, and any later
+ * reference to it is written as <code>{"$ref": id}</code>, which also breaks
+ * cycles. Arrays are written as <code>{"$id": id, "$items": [...]}</code> to
+ * carry their id, and an object shown by its logical structure carries the id
+ * of the object. An object left out by the depth bound gets no id, and is
+ * written again where it is referenced within the bound. The dump is bounded by the <code>org.gap.eclipse.jdt.debug.maxDepth</code>,
+ * <code>org.gap.eclipse.jdt.debug.maxElements</code> and
+ * <code>org.gap.eclipse.jdt.debug.maxNodes</code> system properties, and the
+ * values left out are replaced by a <code>$truncated</code> marker. Arrays are
+ * streamed, so their elements are not bounded unless configured, and a
+ * truncated dump is reported by the returned status.
+ * </p>
+ * <p>
+ * The values of the variables and array elements ahead of the writer are
+ * fetched from the target VM by a small pool of workers, configured with the
+ * <code>org.gap.eclipse.jdt.debug.fetchThreads</code> system property, so the
+ * round trips overlap. Arrays are fetched in pages of
+ * <code>org.gap.eclipse.jdt.debug.pageSize</code> elements, or
+ * <code>org.gap.eclipse.jdt.debug.primitivePageSize</code> elements for arrays
+ * of primitives, which are written compactly and bounded by
+ * <code>org.gap.eclipse.jdt.debug.maxPrimitiveElements</code> instead. Logical
+ * structures are still computed by the writer, as they run evaluations in the
+ * suspended thread.
+ * </p>
+ */
 public class JsonGenerator {
-	private Set<String> terminalTypes = ImmutableSet.of("java.lang.String");
+	private static final int PROGRESS_INTERVAL = 1000;
 
-	public JsonObject construct(IJavaVariable variable) throws CoreException {
-		JsonObject jsonObject = new JsonObject();
-		dumpToJson(Iterators.forArray(variable), jsonObject);
-		return jsonObject;
-	}
+	private static final int MAX_DEPTH = Integer.getInteger("org.gap.eclipse.jdt.debug.maxDepth", 64);
 
-	private void dumpToJson(final Iterator<IVariable> variables, final JsonObject json) throws CoreException {
-		final Deque<IterationEntry> entryStack = new ArrayDeque<>();
-		Iterator<IVariable> runningIterator = variables;
-		JsonObject runningJson = json;
+	private static final int MAX_ELEMENTS = Integer.getInteger("org.gap.eclipse.jdt.debug.maxElements",
+			Integer.MAX_VALUE);
 
-		while (runningIterator.hasNext()) {
-			IJavaVariable variable = (IJavaVariable) runningIterator.next();
-			IValue value = logicalValue(variable.getValue());
+	private static final long MAX_NODES = Long.getLong("org.gap.eclipse.jdt.debug.maxNodes", 10_000_000);
 
-			if (isTerminalType(value) || isArray(value)) {
-				if (isTerminalType(value)) {
-					runningJson.addProperty(variable.getName(), value.getValueString());
-				} else {
-					final IJavaValue[] values = ((IJavaArray) value).getValues();
-					runningJson.add(variable.getName(), createJsonArray(values));
-				}
+	private static final int FETCH_THREADS = Math.max(1,
+			Integer.getInteger("org.gap.eclipse.jdt.debug.fetchThreads", 4));
 
-				if (!runningIterator.hasNext()) {
-					if (entryStack.isEmpty()) {
-						break;
-					}
+	private static final int PAGE_SIZE = Math.max(1, Integer.getInteger("org.gap.eclipse.jdt.debug.pageSize", 512));
 
-					// pop the stack
-					IterationEntry entry = entryStack.pop();
-					runningIterator = entry.variables;
-					runningJson = entry.json;
-				}
-			} else {
-				// complex variable push to stack and continue
-				entryStack.push(IterationEntry.entry(runningIterator, runningJson));
-				runningIterator = Iterators.forArray(value.getVariables());
-				runningJson = new JsonObject();
-				entryStack.peek().json.add(variable.getName(), runningJson);
-			}
+	private static final int PRIMITIVE_PAGE_SIZE = Math.max(1,
+			Integer.getInteger("org.gap.eclipse.jdt.debug.primitivePageSize", 12_288));
+
+	private static final int MAX_PRIMITIVE_ELEMENTS = Integer
+			.getInteger("org.gap.eclipse.jdt.debug.maxPrimitiveElements", 16_777_216);
+
+	private static final String PRIMITIVES = "ZBCSIJFD";
+
+	private static final char BYTE = 'B';
+
+	private static final char OBJECT = 'L';
+
+	private Set<String> terminalTypes = ImmutableSet.of("java.lang.String");
+
+	/**
+	 * Writes the given variable as an object with a single property.
+	 *
+	 * @return an OK status, or a warning describing the values left out if the
+	 *         dump was truncated.
+	 * @throws OperationCanceledException if the monitor is canceled.
+	 */
+	public IStatus write(IJavaVariable variable, DumpWriter writer, IProgressMonitor monitor)
+			throws CoreException, IOException {
+		final AtomicInteger count = new AtomicInteger();
+		final ThreadFactory factory = r -> {
+			final Thread thread = new Thread(r, "Variable Dump Fetch-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		final ExecutorService pool = Executors.newFixedThreadPool(FETCH_THREADS, factory);
+		try {
+			final Dump dump = new Dump(pool, writer, monitor);
+			dump.write(variable);
+			return dump.status();
+		} finally {
+			pool.shutdownNow();
 		}
 	}
 
@@ -80,25 +130,6 @@ public class JsonGenerator {
 		return value;
 	}
 
-	private JsonElement createJsonArray(IJavaValue[] values) throws CoreException {
-		JsonArray array = new JsonArray();
-		for (IJavaValue value : values) {
-			if (isTerminalType(value)) {
-				array.add(value.getValueString());
-			} else if (isArray(value)) {
-				array.add(createJsonArray(((IJavaArray) value).getValues()));
-			} else {
-				JsonObject innerObject = new JsonObject();
-				array.add(innerObject);
-				for (IVariable variable : value.getVariables()) {
-					dumpToJson(Iterators.forArray((IJavaVariable) variable), innerObject);
-				}
-			}
-		}
-
-		return array;
-	}
-
 	private boolean isTerminalType(IValue value) throws DebugException {
 		if (value instanceof IJavaPrimitiveValue) {
 			return true;
@@ -111,19 +142,453 @@ public class JsonGenerator {
 		return value instanceof IJavaArray;
 	}
 
-	public static class IterationEntry {
-		public Iterator<IVariable> variables;
+	/**
+	 * Reads what the writer needs of the given value, so it is fetched by a
+	 * worker instead of the writer.
+	 */
+	private Node resolve(String name, IValue value) throws DebugException {
+		if (isTerminalType(value)) {
+			return new Node(name, value, value.getValueString());
+		}
+		if (!isArray(value)) {
+			// the debug model caches the variables of the value.
+			value.getVariables();
+		}
+		return new Node(name, value, null);
+	}
+
+	private final class Dump {
+		private final ExecutorService pool;
+
+		private final DumpWriter writer;
+
+		private final IProgressMonitor monitor;
+
+		private final LongSet written = new LongSet();
+
+		private final Deque<Frame> frames = new ArrayDeque<>();
+
+		private long elementsLeftOut;
+
+		private long deepValues;
+
+		private boolean nodesLeftOut;
+
+		private Dump(ExecutorService pool, DumpWriter writer, IProgressMonitor monitor) {
+			this.pool = pool;
+			this.writer = writer;
+			this.monitor = monitor;
+		}
+
+		private void write(IJavaVariable variable) throws CoreException, IOException {
+			writer.beginObject();
+			frames.push(new ObjectFrame(new IVariable[] { variable }));
+
+			long nodes = 0;
+			long reported = 0;
+			while (!frames.isEmpty()) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+
+				final Frame frame = frames.peek();
+				if (nodes >= MAX_NODES) {
+					nodesLeftOut = true;
+					frames.pop();
+					if (frames.isEmpty()) {
+						writer.name("$truncated").value("nodes");
+					}
+					frame.end(writer);
+					continue;
+				}
+				if (!frame.hasNext()) {
+					frames.pop();
+					frame.end(writer);
+					continue;
+				}
+
+				final int count = frame.writeNext();
+				nodes += count;
+				monitor.worked(count);
+				if (nodes - reported >= PROGRESS_INTERVAL) {
+					reported = nodes;
+					monitor.subTask(String.format("%,d values written", nodes));
+				}
+			}
+		}
+
+		private IStatus status() {
+			final List<String> leftOut = new ArrayList<>(3);
+			if (deepValues > 0) {
+				leftOut.add(String.format("%,d values deeper than %d levels", deepValues, MAX_DEPTH));
+			}
+			if (elementsLeftOut > 0) {
+				leftOut.add(String.format("%,d array elements", elementsLeftOut));
+			}
+			if (nodesLeftOut) {
+				leftOut.add(String.format("the values after the first %,d", MAX_NODES));
+			}
+			if (leftOut.isEmpty()) {
+				return Status.OK_STATUS;
+			}
+			return new Status(IStatus.WARNING, CorePlugin.PLUGIN_ID,
+					"The dump was truncated, it leaves out " + String.join(", ", leftOut) + ".");
+		}
+
+		/**
+		 * Writes the given value fetched by a frame, and pushes the frame to write
+		 * its content if it has one.
+		 */
+		private void writeNode(Node node) throws CoreException, IOException {
+			if (node.name != null) {
+				writer.name(node.name);
+			}
+			final Frame child = writeValue(node, frames.size());
+			if (child != null) {
+				frames.push(child);
+			}
+		}
+
+		/**
+		 * Writes a terminal value or a reference to an object which was already
+		 * written, or starts the JSON object or array of the given value and returns
+		 * the frame to write its content. The values of variables are written using
+		 * their logical structure, the elements of arrays as they are.
+		 */
+		private Frame writeValue(Node node, int depth) throws CoreException, IOException {
+			if (node.terminal != null) {
+				writer.value(node.terminal);
+				return null;
+			}
+
+			final IValue value = node.value;
+			final long id = uniqueId(value);
+			if (id != -1 && written.contains(id)) {
+				writer.beginObject().name("$ref").value(id).endObject();
+				return null;
+			}
+			if (depth >= MAX_DEPTH) {
+				deepValues++;
+				writer.beginObject().name("$type").value(value.getReferenceTypeName()).name("$truncated")
+						.value("depth").endObject();
+				return null;
+			}
+			if (id != -1) {
+				// every branch below writes the $id.
+				written.add(id);
+			}
+
+			final IValue logical = node.name != null && !isArray(value) ? logicalValue(value) : value;
+			if (isArray(logical)) {
+				final char component = componentType((IJavaArray) logical);
+				if (component == BYTE) {
+					writer.beginObject();
+					writeId(id);
+					writer.name("$bytes").beginArray();
+					return new PrimitiveArrayFrame((IJavaArray) logical, component, false);
+				}
+				// arrays are wrapped in an object to carry the $id.
+				final boolean wrapped = id != -1;
+				if (wrapped) {
+					writer.beginObject();
+					writeId(id);
+					writer.name("$items");
+				}
+				writer.beginArray();
+				if (component != OBJECT) {
+					return new PrimitiveArrayFrame((IJavaArray) logical, component, wrapped);
+				}
+				return new ArrayFrame((IJavaArray) logical, wrapped);
+			} else {
+				writer.beginObject();
+				writeId(id);
+				return new ObjectFrame(logical.getVariables());
+			}
+		}
+
+		private void writeId(long id) throws IOException {
+			if (id != -1) {
+				writer.name("$id").value(id);
+			}
+		}
+
+		private char componentType(IJavaArray array) throws DebugException {
+			final String signature = array.getSignature();
+			if (signature != null && signature.length() == 2 && PRIMITIVES.indexOf(signature.charAt(1)) != -1) {
+				return signature.charAt(1);
+			}
+			return OBJECT;
+		}
+
+		private long uniqueId(IValue value) throws DebugException {
+			if (value instanceof IJavaObject && !((IJavaObject) value).isNull()) {
+				return ((IJavaObject) value).getUniqueId();
+			}
+			return -1;
+		}
+
+		private <T> T get(Future<T> future) throws CoreException {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof CoreException) {
+					throw (CoreException) e.getCause();
+				}
+				throw new CoreException(
+						new Status(IStatus.ERROR, CorePlugin.PLUGIN_ID, e.getCause().getMessage(), e.getCause()));
+			}
+		}
+
+		private final class ObjectFrame implements Frame {
+			private final Iterator<Future<Node>> variables;
+
+			private ObjectFrame(IVariable[] variables) {
+				final List<Future<Node>> futures = new ArrayList<>(variables.length);
+				for (IVariable variable : variables) {
+					futures.add(pool.submit(() -> resolve(variable.getName(), variable.getValue())));
+				}
+				this.variables = futures.iterator();
+			}
+
+			@Override
+			public boolean hasNext() {
+				return variables.hasNext();
+			}
+
+			@Override
+			public int writeNext() throws CoreException, IOException {
+				writeNode(get(variables.next()));
+				return 1;
+			}
+
+			@Override
+			public void end(DumpWriter writer) throws IOException {
+				writer.endObject();
+			}
+		}
+
+		/**
+		 * Fetches the elements of an array in pages, keeping one page per worker in
+		 * flight ahead of the writer.
+		 */
+		private final class ArrayFrame implements Frame {
+			private final IJavaArray array;
+
+			private final boolean wrapped;
+
+			private final int total;
+
+			private final int length;
+
+			private final Deque<Future<Node[]>> pages = new ArrayDeque<>();
+
+			private int fetched;
+
+			private Node[] page = new Node[0];
+
+			private int pageIndex;
+
+			private int index;
+
+			private ArrayFrame(IJavaArray array, boolean wrapped) throws DebugException {
+				this.array = array;
+				this.wrapped = wrapped;
+				this.total = array.getLength();
+				this.length = Math.min(total, MAX_ELEMENTS);
+				fetchAhead();
+			}
+
+			private void fetchAhead() {
+				while (pages.size() < FETCH_THREADS && fetched < length) {
+					final int offset = fetched;
+					final int count = Math.min(PAGE_SIZE, length - offset);
+					pages.add(pool.submit(() -> {
+						final IJavaValue[] values = array.getValues(offset, count);
+						final Node[] nodes = new Node[values.length];
+						for (int i = 0; i < values.length; i++) {
+							nodes[i] = resolve(null, values[i]);
+						}
+						return nodes;
+					}));
+					fetched += count;
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return index < length;
+			}
+
+			@Override
+			public int writeNext() throws CoreException, IOException {
+				if (pageIndex == page.length) {
+					page = get(pages.poll());
+					pageIndex = 0;
+					fetchAhead();
+				}
+				index++;
+				writeNode(page[pageIndex++]);
+				return 1;
+			}
+
+			@Override
+			public void end(DumpWriter writer) throws IOException {
+				if (index < total) {
+					elementsLeftOut += total - index;
+					writer.beginObject().name("$truncated").value(total - index).endObject();
+				}
+				writer.endArray();
+				if (wrapped) {
+					writer.endObject();
+				}
+			}
+		}
+
+		/**
+		 * Writes the elements of an array of primitives a page at a time as
+		 * numbers, booleans or strings, or for a <code>byte[]</code> as byte
+		 * strings, one per page. The pages are fetched ahead like those of object
+		 * arrays, but their elements need no further round trips.
+		 */
+		private final class PrimitiveArrayFrame implements Frame {
+			private final IJavaArray array;
+
+			private final char component;
+
+			private final boolean wrapped;
+
+			private final int pageSize;
+
+			private final int total;
+
+			private final int length;
+
+			private final Deque<Future<IJavaValue[]>> pages = new ArrayDeque<>();
+
+			private int fetched;
+
+			private int index;
+
+			private PrimitiveArrayFrame(IJavaArray array, char component, boolean wrapped) throws DebugException {
+				this.array = array;
+				this.component = component;
+				this.wrapped = wrapped;
+				// base64 pages can only be joined if they hold whole groups of three bytes.
+				this.pageSize = component == BYTE ? Math.max(3, PRIMITIVE_PAGE_SIZE - PRIMITIVE_PAGE_SIZE % 3)
+						: PRIMITIVE_PAGE_SIZE;
+				this.total = array.getLength();
+				this.length = Math.min(total, MAX_PRIMITIVE_ELEMENTS);
+				fetchAhead();
+			}
+
+			private void fetchAhead() {
+				while (pages.size() < FETCH_THREADS && fetched < length) {
+					final int offset = fetched;
+					final int count = Math.min(pageSize, length - offset);
+					pages.add(pool.submit(() -> array.getValues(offset, count)));
+					fetched += count;
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return index < length;
+			}
 
-		public JsonObject json;
+			@Override
+			public int writeNext() throws CoreException, IOException {
+				final IJavaValue[] values = get(pages.poll());
+				fetchAhead();
+				index += values.length;
+				if (component == BYTE) {
+					final byte[] bytes = new byte[values.length];
+					for (int i = 0; i < values.length; i++) {
+						bytes[i] = ((IJavaPrimitiveValue) values[i]).getByteValue();
+					}
+					writer.value(bytes);
+					return values.length;
+				}
 
-		private IterationEntry() {
+				for (IJavaValue value : values) {
+					final IJavaPrimitiveValue primitive = (IJavaPrimitiveValue) value;
+					switch (component) {
+					case 'Z':
+						writer.value(primitive.getBooleanValue());
+						break;
+					case 'C':
+						writer.value(String.valueOf(primitive.getCharValue()));
+						break;
+					case 'F':
+					case 'D':
+						final double number = primitive.getDoubleValue();
+						if (Double.isNaN(number) || Double.isInfinite(number)) {
+							writer.value(String.valueOf(number));
+						} else {
+							writer.value(number);
+						}
+						break;
+					default:
+						writer.value(primitive.getLongValue());
+						break;
+					}
+				}
+				return values.length;
+			}
+
+			@Override
+			public void end(DumpWriter writer) throws IOException {
+				if (component == BYTE) {
+					writer.endArray();
+					if (index < total) {
+						elementsLeftOut += total - index;
+						writer.name("$truncated").value(total - index);
+					}
+					writer.endObject();
+					return;
+				}
+				if (index < total) {
+					elementsLeftOut += total - index;
+					writer.beginObject().name("$truncated").value(total - index).endObject();
+				}
+				writer.endArray();
+				if (wrapped) {
+					writer.endObject();
+				}
+			}
 		}
+	}
+
+	private interface Frame {
+		boolean hasNext();
+
+		/**
+		 * Writes the next value or values of the frame.
+		 *
+		 * @return the number of values written.
+		 */
+		int writeNext() throws CoreException, IOException;
+
+		void end(DumpWriter writer) throws IOException;
+	}
+
+	/**
+	 * A value fetched ahead of the writer, with the name of its variable or
+	 * <code>null</code> for array elements, and its text if it is terminal.
+	 */
+	private static final class Node {
+		private final String name;
+
+		private final IValue value;
+
+		private final String terminal;
 
-		public static IterationEntry entry(Iterator<IVariable> variables, JsonObject json) {
-			IterationEntry entry = new IterationEntry();
-			entry.variables = variables;
-			entry.json = json;
-			return entry;
+		private Node(String name, IValue value, String terminal) {
+			this.name = name;
+			this.value = value;
+			this.terminal = terminal;
 		}
 	}
 }
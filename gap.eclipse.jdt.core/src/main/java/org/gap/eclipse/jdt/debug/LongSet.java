@@ -0,0 +1,80 @@
+package org.gap.eclipse.jdt.debug;
+
+/**
+ * Set of <code>long</code> values kept in an open addressing table, so adding
+ * a value does not box it or allocate an entry. Used to remember the ids of the
+ * objects written in a dump, which can be millions.
+ */
+final class LongSet {
+	private static final long EMPTY = 0;
+
+	private long[] table = new long[1024];
+
+	private int size;
+
+	// zero marks the empty slots, so it is kept aside.
+	private boolean containsZero;
+
+	/**
+	 * Adds the given value.
+	 *
+	 * @return <code>false</code> if the set already contained the value.
+	 */
+	boolean add(long value) {
+		if (value == EMPTY) {
+			final boolean added = !containsZero;
+			containsZero = true;
+			return added;
+		}
+
+		final int slot = slot(table, value);
+		if (table[slot] == value) {
+			return false;
+		}
+		table[slot] = value;
+		// keep the table at most half full.
+		if (++size * 2 > table.length) {
+			grow();
+		}
+		return true;
+	}
+
+	boolean contains(long value) {
+		if (value == EMPTY) {
+			return containsZero;
+		}
+		return table[slot(table, value)] == value;
+	}
+
+	int size() {
+		return containsZero ? size + 1 : size;
+	}
+
+	/**
+	 * Returns the slot of the given value in the given table, or the empty slot
+	 * it would be added to.
+	 */
+	private static int slot(long[] table, long value) {
+		final int mask = table.length - 1;
+		int slot = hash(value) & mask;
+		while (table[slot] != EMPTY && table[slot] != value) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int hash(long value) {
+		final long mixed = value * 0x9E3779B97F4A7C15L;
+		return (int) (mixed ^ (mixed >>> 32));
+	}
+
+	private void grow() {
+		final long[] grown = new long[table.length * 2];
+		for (long value : table) {
+			if (value != EMPTY) {
+				grown[slot(grown, value)] = value;
+			}
+		}
+		table = grown;
+	}
+}
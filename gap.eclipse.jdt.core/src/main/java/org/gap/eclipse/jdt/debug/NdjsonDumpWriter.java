@@ -0,0 +1,162 @@
+package org.gap.eclipse.jdt.debug;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Base64;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a dump as a flat table of nodes, one JSON object per line. Each node
+ * has an <code>id</code>, the id of its <code>parent</code> unless it is the
+ * root, its <code>name</code> in an object or <code>index</code> in an array,
+ * and its <code>type</code>. Values also have a <code>value</code>, while the
+ * content of objects and arrays follows as the nodes which reference them as
+ * parent. Lines are written in document order, so a parent always comes
+ * before its children.
+ */
+class NdjsonDumpWriter implements DumpWriter {
+	private final Writer out;
+
+	// ids of the open objects and arrays, and the next index of each open array.
+	private long[] parents = new long[32];
+
+	private int[] indexes = new int[32];
+
+	private boolean[] arrays = new boolean[32];
+
+	private int depth;
+
+	private long nextId;
+
+	private String name;
+
+	NdjsonDumpWriter(Writer out) {
+		this.out = out;
+	}
+
+	@Override
+	public DumpWriter beginObject() throws IOException {
+		open("object", false);
+		return this;
+	}
+
+	@Override
+	public DumpWriter endObject() throws IOException {
+		close(false);
+		return this;
+	}
+
+	@Override
+	public DumpWriter beginArray() throws IOException {
+		open("array", true);
+		return this;
+	}
+
+	@Override
+	public DumpWriter endArray() throws IOException {
+		close(true);
+		return this;
+	}
+
+	@Override
+	public DumpWriter name(String name) throws IOException {
+		if (depth == 0 || arrays[depth - 1] || this.name != null) {
+			throw new IllegalStateException("Unexpected name " + name);
+		}
+		this.name = name;
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(String value) throws IOException {
+		endNode(beginNode("string").name("value").value(value));
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(long value) throws IOException {
+		endNode(beginNode("number").name("value").value(value));
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(double value) throws IOException {
+		endNode(beginNode("number").name("value").value(value));
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(boolean value) throws IOException {
+		endNode(beginNode("boolean").name("value").value(value));
+		return this;
+	}
+
+	@Override
+	public DumpWriter value(byte[] value) throws IOException {
+		endNode(beginNode("bytes").name("value").value(Base64.getEncoder().encodeToString(value)));
+		return this;
+	}
+
+	private void open(String type, boolean array) throws IOException {
+		final long id = nextId;
+		endNode(beginNode(type));
+		if (depth == parents.length) {
+			parents = Arrays.copyOf(parents, depth * 2);
+			indexes = Arrays.copyOf(indexes, depth * 2);
+			arrays = Arrays.copyOf(arrays, depth * 2);
+		}
+		parents[depth] = id;
+		indexes[depth] = 0;
+		arrays[depth] = array;
+		depth++;
+	}
+
+	private void close(boolean array) {
+		if (depth == 0 || arrays[depth - 1] != array || name != null) {
+			throw new IllegalStateException("Nesting problem");
+		}
+		depth--;
+	}
+
+	/**
+	 * Writes the start of the line of the next node, up to its type.
+	 */
+	private JsonWriter beginNode(String type) throws IOException {
+		if (depth == 0 && nextId > 0) {
+			throw new IllegalStateException("Dump already complete");
+		}
+		if (depth > 0 && !arrays[depth - 1] && name == null) {
+			throw new IllegalStateException("Missing name of the value");
+		}
+
+		// the writer writes straight through to the output, so it is not flushed.
+		final JsonWriter line = new JsonWriter(out);
+		line.beginObject().name("id").value(nextId++);
+		if (depth > 0) {
+			line.name("parent").value(parents[depth - 1]);
+			if (arrays[depth - 1]) {
+				line.name("index").value(indexes[depth - 1]++);
+			} else {
+				line.name("name").value(name);
+				name = null;
+			}
+		}
+		line.name("type").value(type);
+		return line;
+	}
+
+	private void endNode(JsonWriter line) throws IOException {
+		line.endObject();
+		out.write('\n');
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+		if (depth > 0) {
+			throw new IOException("Incomplete document");
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package org.gap.eclipse.jdt.index;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read only view of a stored archive index. The index file is memory mapped,
+ * only the string table and the return type directory are decoded when the
+ * index is opened, members are decoded on lookup.
+ * <p>
+ * File layout:
+ *
+ * <pre>
+ * int magic, int version, long lastModified, long length, string archiveId
+ * int stringCount, string[stringCount]
+ * int keyCount, {int keyString, int memberOffset, int memberCount}[keyCount]
+ * int memberSectionLength, {int type, int name, byte kind, byte paramCount, int[paramCount] params}[]
+ * </pre>
+ *
+ * Strings are stored as an int length followed by the UTF-8 bytes.
+ * </p>
+ */
+public final class ArchiveIndex {
+	static final int MAGIC = 0x47415053;
+
+	static final int VERSION = 1;
+
+	// ids are archive paths, anything longer is not a valid header.
+	private static final int MAX_ID_LENGTH = 64 * 1024;
+
+	private final ArchiveKey key;
+
+	private final String[] strings;
+
+	private final Map<String, int[]> directory;
+
+	private final ByteBuffer members;
+
+	private ArchiveIndex(ArchiveKey key, String[] strings, Map<String, int[]> directory, ByteBuffer members) {
+		this.key = key;
+		this.strings = strings;
+		this.directory = directory;
+		this.members = members;
+	}
+
+	/**
+	 * Opens the given index file.
+	 *
+	 * @throws IOException if the file cannot be read, has an unsupported format
+	 *                     or is corrupt, for example truncated.
+	 */
+	static ArchiveIndex open(Path file) throws IOException {
+		final MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		try {
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("Unsupported index file " + file);
+			}
+			final long lastModified = buffer.getLong();
+			final long length = buffer.getLong();
+			final ArchiveKey key = new ArchiveKey(readString(buffer), lastModified, length);
+
+			final String[] strings = new String[buffer.getInt()];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = readString(buffer);
+			}
+
+			final int keyCount = buffer.getInt();
+			final int[][] entries = new int[keyCount][];
+			for (int i = 0; i < keyCount; i++) {
+				entries[i] = new int[] { buffer.getInt(), buffer.getInt(), buffer.getInt() };
+			}
+
+			final int sectionLength = buffer.getInt();
+			if (sectionLength < 0 || sectionLength > buffer.remaining()) {
+				throw new IOException("Truncated index file " + file);
+			}
+			final Map<String, int[]> directory = new HashMap<>(keyCount * 2);
+			for (int[] entry : entries) {
+				if (entry[1] < 0 || entry[1] > sectionLength || entry[2] < 0) {
+					throw new IOException("Corrupt index file " + file);
+				}
+				directory.put(strings[entry[0]], new int[] { entry[1], entry[2] });
+			}
+
+			final ByteBuffer members = buffer.slice();
+			members.limit(sectionLength);
+			return new ArchiveIndex(key, strings, directory, members);
+		} catch (RuntimeException e) {
+			// a truncated or overwritten file fails on reading past its end or on bad sizes.
+			throw new IOException("Corrupt index file " + file, e);
+		}
+	}
+
+	/**
+	 * Returns the id of the archive of the given index file, reading only the
+	 * header of the file.
+	 */
+	static String readArchiveId(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unsupported index file " + file);
+			}
+			in.readLong();
+			in.readLong();
+			final int size = in.readInt();
+			if (size < 0 || size > MAX_ID_LENGTH) {
+				throw new IOException("Corrupt index file " + file);
+			}
+			final byte[] bytes = new byte[size];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	ArchiveKey getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the public static members whose erased return type, or field type,
+	 * is the given fully qualified type name.
+	 */
+	public List<IndexedMember> find(String erasedType) {
+		final int[] entry = directory.get(erasedType);
+		if (entry == null) {
+			return Collections.emptyList();
+		}
+
+		// duplicate to keep the position independent between concurrent lookups.
+		final ByteBuffer buffer = members.duplicate();
+		buffer.position(entry[0]);
+		final List<IndexedMember> result = new ArrayList<>(entry[1]);
+		for (int i = 0; i < entry[1]; i++) {
+			final String type = strings[buffer.getInt()];
+			final String name = strings[buffer.getInt()];
+			final byte kind = buffer.get();
+			final String[] parameters = new String[buffer.get() & 0xFF];
+			for (int p = 0; p < parameters.length; p++) {
+				parameters[p] = strings[buffer.getInt()];
+			}
+			result.add(new IndexedMember(type, name, kind, parameters));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,177 @@
+package org.gap.eclipse.jdt.index;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IOrdinaryClassFile;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+
+/**
+ * Collects the public static members of an archive root and writes them as an
+ * {@link ArchiveIndex} file.
+ */
+final class ArchiveIndexWriter {
+	// same packages which are filtered out from the live static search.
+	private static final String[] EXCLUDED_PACKAGES = { "sun.", "com.sun.", "com.oracle.", "jdk." };
+
+	private final Map<String, List<IndexedMember>> entries = new TreeMap<>();
+
+	private final Map<String, Integer> strings = new HashMap<>();
+
+	private final List<String> stringTable = new ArrayList<>();
+
+	void collect(IPackageFragmentRoot root, IProgressMonitor monitor) throws JavaModelException {
+		final IJavaElement[] fragments = root.getChildren();
+		final SubMonitor subMonitor = SubMonitor.convert(monitor, root.getElementName(), fragments.length);
+		for (IJavaElement element : fragments) {
+			if (subMonitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+
+			final IPackageFragment fragment = (IPackageFragment) element;
+			if (!isExcluded(fragment.getElementName())) {
+				for (IOrdinaryClassFile classFile : fragment.getOrdinaryClassFiles()) {
+					collect(classFile.getType());
+				}
+			}
+			subMonitor.worked(1);
+		}
+	}
+
+	private boolean isExcluded(String packageName) {
+		for (String excluded : EXCLUDED_PACKAGES) {
+			if (packageName.startsWith(excluded)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void collect(IType type) {
+		try {
+			if (!Flags.isPublic(type.getFlags()) || type.isAnonymous() || type.isLocal()) {
+				return;
+			}
+
+			final String typeName = type.getFullyQualifiedName();
+			for (IMethod method : type.getMethods()) {
+				if (isPublicStatic(method.getFlags()) && !method.isConstructor()) {
+					add(erasedTypeName(method.getReturnType()), new IndexedMember(typeName, method.getElementName(),
+							IndexedMember.METHOD, method.getParameterTypes()));
+				}
+			}
+			for (IField field : type.getFields()) {
+				if (isPublicStatic(field.getFlags())) {
+					add(erasedTypeName(field.getTypeSignature()),
+							new IndexedMember(typeName, field.getElementName(), IndexedMember.FIELD, new String[0]));
+				}
+			}
+		} catch (JavaModelException e) {
+			// skip class files which cannot be read.
+		}
+	}
+
+	private boolean isPublicStatic(int flags) {
+		return Flags.isPublic(flags) && Flags.isStatic(flags);
+	}
+
+	static String erasedTypeName(String signature) {
+		final String sig = signature.replace('/', '.');
+		final int kind = Signature.getTypeSignatureKind(sig);
+		if (kind != Signature.CLASS_TYPE_SIGNATURE && kind != Signature.ARRAY_TYPE_SIGNATURE) {
+			return null;
+		}
+		return Signature.toString(Signature.getTypeErasure(sig)).replace('$', '.');
+	}
+
+	private void add(String key, IndexedMember member) {
+		if (key != null) {
+			entries.computeIfAbsent(key, k -> new ArrayList<>()).add(member);
+		}
+	}
+
+	private int stringId(String value) {
+		return strings.computeIfAbsent(value, v -> {
+			stringTable.add(v);
+			return stringTable.size() - 1;
+		});
+	}
+
+	/**
+	 * Writes the collected members into the given file, which must not exist yet.
+	 * The file is written into a temporary file first and then moved, so readers
+	 * never see a partial index.
+	 */
+	void write(ArchiveKey key, Path file) throws IOException {
+		final ByteArrayOutputStream memberBytes = new ByteArrayOutputStream();
+		final DataOutputStream memberOut = new DataOutputStream(memberBytes);
+		final List<int[]> directory = new ArrayList<>(entries.size());
+
+		for (Map.Entry<String, List<IndexedMember>> entry : entries.entrySet()) {
+			directory.add(new int[] { stringId(entry.getKey()), memberOut.size(), entry.getValue().size() });
+			for (IndexedMember member : entry.getValue()) {
+				memberOut.writeInt(stringId(member.getDeclaringType()));
+				memberOut.writeInt(stringId(member.getName()));
+				memberOut.writeByte(member.getKind());
+				memberOut.writeByte(member.getParameterTypes().length);
+				for (String parameter : member.getParameterTypes()) {
+					memberOut.writeInt(stringId(parameter));
+				}
+			}
+		}
+		memberOut.flush();
+
+		final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(ArchiveIndex.MAGIC);
+			out.writeInt(ArchiveIndex.VERSION);
+			out.writeLong(key.getLastModified());
+			out.writeLong(key.getLength());
+			writeString(out, key.getId());
+
+			out.writeInt(stringTable.size());
+			for (String value : stringTable) {
+				writeString(out, value);
+			}
+
+			out.writeInt(directory.size());
+			for (int[] entry : directory) {
+				out.writeInt(entry[0]);
+				out.writeInt(entry[1]);
+				out.writeInt(entry[2]);
+			}
+
+			out.writeInt(memberBytes.size());
+			memberBytes.writeTo(out);
+		}
+		Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void writeString(DataOutputStream out, String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
@@ -0,0 +1,85 @@
+package org.gap.eclipse.jdt.index;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Identifies an archive package fragment root together with the timestamp and
+ * size of the archive file, so a stored index can be validated before use.
+ */
+final class ArchiveKey {
+	private final String id;
+
+	private final long lastModified;
+
+	private final long length;
+
+	ArchiveKey(String id, long lastModified, long length) {
+		this.id = id;
+		this.lastModified = lastModified;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the key for the given root or <code>null</code> if the root is not
+	 * backed by an archive file on the local file system.
+	 */
+	static ArchiveKey of(IPackageFragmentRoot root) {
+		if (!root.isArchive()) {
+			return null;
+		}
+
+		final IResource resource = root.getResource();
+		final IPath location = resource != null ? resource.getLocation() : root.getPath();
+		if (location == null) {
+			return null;
+		}
+
+		final File file = location.toFile();
+		if (!file.isFile()) {
+			return null;
+		}
+		// module roots of a JRE share the same archive path, so the module name is
+		// part of the id.
+		return new ArchiveKey(location.toString() + "|" + root.getElementName(), file.lastModified(), file.length());
+	}
+
+	String getId() {
+		return id;
+	}
+
+	long getLastModified() {
+		return lastModified;
+	}
+
+	long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the name of the index file for this version of the archive. A
+	 * changed archive gets a new file, so its index is never written over a file
+	 * which may still be mapped.
+	 */
+	String fileName() {
+		return filePrefix() + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + ".idx";
+	}
+
+	/**
+	 * Returns the start of the names of the index files of all versions of the
+	 * archive.
+	 */
+	String filePrefix() {
+		return Hashing.sha256().hashString(id, StandardCharsets.UTF_8).toString() + "-";
+	}
+
+	boolean isSameVersion(ArchiveKey other) {
+		return id.equals(other.id) && lastModified == other.lastModified && length == other.length;
+	}
+}
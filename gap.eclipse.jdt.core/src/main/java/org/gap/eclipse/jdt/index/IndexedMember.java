@@ -0,0 +1,70 @@
+package org.gap.eclipse.jdt.index;
+
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+/**
+ * A public static member stored in an archive index. The member is kept as
+ * plain names so that it can be resolved against the package fragment root of
+ * any project which has the archive on its classpath.
+ */
+public final class IndexedMember {
+	static final byte FIELD = 0;
+
+	static final byte METHOD = 1;
+
+	private final String declaringType;
+
+	private final String name;
+
+	private final byte kind;
+
+	private final String[] parameterTypes;
+
+	IndexedMember(String declaringType, String name, byte kind, String[] parameterTypes) {
+		this.declaringType = declaringType;
+		this.name = name;
+		this.kind = kind;
+		this.parameterTypes = parameterTypes;
+	}
+
+	/**
+	 * Returns the binary qualified name of the declaring type, where nested types
+	 * are separated by <code>$</code>.
+	 */
+	public String getDeclaringType() {
+		return declaringType;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isMethod() {
+		return kind == METHOD;
+	}
+
+	String[] getParameterTypes() {
+		return parameterTypes;
+	}
+
+	byte getKind() {
+		return kind;
+	}
+
+	/**
+	 * Creates the member handle inside the given root. This doesn't access the
+	 * archive, the returned handle is opened only when its info is requested.
+	 */
+	public IMember resolve(IPackageFragmentRoot root) {
+		final int packageEnd = declaringType.lastIndexOf('.');
+		final String packageName = packageEnd > -1 ? declaringType.substring(0, packageEnd) : "";
+		final String className = declaringType.substring(packageEnd + 1);
+		final IType type = root.getPackageFragment(packageName).getOrdinaryClassFile(className + ".class").getType();
+		if (kind == METHOD) {
+			return type.getMethod(name, parameterTypes);
+		}
+		return type.getField(name);
+	}
+}
@@ -0,0 +1,182 @@
+package org.gap.eclipse.jdt.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.gap.eclipse.jdt.CorePlugin;
+
+/**
+ * Index from erased return type to the public static methods and fields of the
+ * archives on the classpath. Each archive gets its own index file in the plugin
+ * state location which is built in the background the first time the archive
+ * is requested, and reused until the archive changes. The name of an index
+ * file includes the version of its archive, so a changed archive is indexed
+ * into a new file while the old one may still be mapped. Old files are deleted
+ * once the new one is built, or when the index is first used after a restart
+ * if they could not be deleted while mapped. Unreadable index files are built
+ * again, and the files of archives which no longer exist are deleted too.
+ */
+public final class StaticMemberIndex {
+	private final Path location;
+
+	private final Map<String, ArchiveIndex> indexes = new ConcurrentHashMap<>();
+
+	// archives whose index could not be built, not retried until they change.
+	private final Map<String, ArchiveKey> failed = new ConcurrentHashMap<>();
+
+	private final StaticMemberIndexJob job;
+
+	public StaticMemberIndex(Path location) {
+		this.location = location;
+		this.job = new StaticMemberIndexJob(this);
+	}
+
+	/**
+	 * Returns the index for the given root if it is ready. Otherwise the index is
+	 * scheduled to be loaded or built and <code>null</code> is returned, in which
+	 * case the caller should search the root using the search engine.
+	 */
+	public ArchiveIndex indexFor(IPackageFragmentRoot root) {
+		final ArchiveKey key = ArchiveKey.of(root);
+		if (key == null) {
+			return null;
+		}
+
+		final ArchiveIndex index = indexes.get(key.getId());
+		if (index != null && index.getKey().isSameVersion(key)) {
+			return index;
+		}
+		final ArchiveKey failure = failed.get(key.getId());
+		if (failure != null && failure.isSameVersion(key)) {
+			return null;
+		}
+		job.enqueue(key.getId(), root);
+		return null;
+	}
+
+	void build(IPackageFragmentRoot root, IProgressMonitor monitor) {
+		final ArchiveKey key = ArchiveKey.of(root);
+		if (key == null) {
+			return;
+		}
+
+		try {
+			Files.createDirectories(location);
+			final Path file = location.resolve(key.fileName());
+			if (Files.exists(file)) {
+				final ArchiveIndex stored = openOrDelete(file);
+				if (stored != null && stored.getKey().isSameVersion(key)) {
+					indexes.put(key.getId(), stored);
+					return;
+				}
+			}
+
+			final ArchiveIndexWriter writer = new ArchiveIndexWriter();
+			writer.collect(root, monitor);
+			writer.write(key, file);
+			final ArchiveIndex built = openOrDelete(file);
+			if (built == null) {
+				throw new IOException("Index file written for " + key.getId() + " cannot be read");
+			}
+			indexes.put(key.getId(), built);
+			failed.remove(key.getId());
+			deleteOtherVersions(key);
+		} catch (IOException | JavaModelException e) {
+			// the root is searched by the search engine until the archive changes.
+			failed.put(key.getId(), key);
+			CorePlugin.getDefault().logError("Failed to index static members of " + key.getId(), e);
+		}
+	}
+
+	/**
+	 * Opens the given index file, deleting it if it cannot be read so it is built
+	 * again.
+	 */
+	private ArchiveIndex openOrDelete(Path file) {
+		try {
+			return ArchiveIndex.open(file);
+		} catch (IOException e) {
+			CorePlugin.getDefault().logInfo("Rebuilding unreadable index file " + file + ": " + e.getMessage());
+			delete(file);
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes the index files of the other versions of the given archive. Files
+	 * which are still mapped cannot be deleted on some platforms, they are left to
+	 * {@link #prune(IProgressMonitor)}.
+	 */
+	private void deleteOtherVersions(ArchiveKey key) {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(location, key.filePrefix() + "*.idx")) {
+			for (Path file : files) {
+				if (!file.getFileName().toString().equals(key.fileName())) {
+					Files.deleteIfExists(file);
+				}
+			}
+		} catch (IOException e) {
+			// deleted on the next start.
+		}
+	}
+
+	/**
+	 * Deletes the index files of archives which no longer exist or changed, and
+	 * index files which cannot be read.
+	 */
+	void prune(IProgressMonitor monitor) {
+		if (!Files.isDirectory(location)) {
+			return;
+		}
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(location, "*.{idx,tmp}")) {
+			for (Path file : files) {
+				if (monitor.isCanceled()) {
+					return;
+				}
+				if (file.getFileName().toString().endsWith(".tmp")) {
+					// left over by a write which did not complete.
+					delete(file);
+					continue;
+				}
+
+				try {
+					final String id = ArchiveIndex.readArchiveId(file);
+					final int separator = id.lastIndexOf('|');
+					final File archive = separator < 0 ? null : Paths.get(id.substring(0, separator)).toFile();
+					if (archive == null || !archive.isFile() || !file.getFileName().toString()
+							.equals(new ArchiveKey(id, archive.lastModified(), archive.length()).fileName())) {
+						delete(file);
+					}
+				} catch (IOException | InvalidPathException e) {
+					delete(file);
+				}
+			}
+		} catch (IOException e) {
+			CorePlugin.getDefault().logError("Failed to prune static member index files", e);
+		}
+	}
+
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			CorePlugin.getDefault().logError("Failed to delete index file " + file, e);
+		}
+	}
+
+	public void dispose() {
+		job.cancel();
+		indexes.clear();
+		failed.clear();
+	}
+}
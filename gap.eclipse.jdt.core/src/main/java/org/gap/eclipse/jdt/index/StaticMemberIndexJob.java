@@ -0,0 +1,69 @@
+package org.gap.eclipse.jdt.index;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.gap.eclipse.jdt.Messages;
+
+class StaticMemberIndexJob extends Job {
+	private final StaticMemberIndex index;
+
+	private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+	private final Map<String, IPackageFragmentRoot> pending = new ConcurrentHashMap<>();
+
+	private boolean pruned;
+
+	StaticMemberIndexJob(StaticMemberIndex index) {
+		super(Messages.StaticMemberIndexJob_JobName);
+		this.index = index;
+		setSystem(true);
+		setPriority(Job.DECORATE);
+	}
+
+	void enqueue(String id, IPackageFragmentRoot root) {
+		if (pending.putIfAbsent(id, root) == null) {
+			queue.add(id);
+			schedule();
+		}
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		if (!pruned) {
+			pruned = true;
+			index.prune(monitor);
+		}
+
+		String id;
+		while ((id = queue.poll()) != null) {
+			if (monitor.isCanceled()) {
+				return cancelled();
+			}
+
+			try {
+				index.build(pending.get(id), monitor);
+			} catch (OperationCanceledException e) {
+				return cancelled();
+			} finally {
+				pending.remove(id);
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	private IStatus cancelled() {
+		// roots are enqueued again on their next lookup.
+		queue.clear();
+		pending.clear();
+		return Status.CANCEL_STATUS;
+	}
+}
@@ -0,0 +1,332 @@
+package org.gap.eclipse.jdt.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.eclipse.osgi.service.debug.DebugOptionsListener;
+import org.eclipse.osgi.service.debug.DebugTrace;
+import org.gap.eclipse.jdt.CorePlugin;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Latency histograms and counters of the smart completion computers.
+ * <p>
+ * A computer invocation is started with {@link #begin(String)} on the thread
+ * calling the computer, and the phases and counters recorded on that thread
+ * until it ends are attributed to the computer, under names like
+ * <code>SmartStaticProposalComputer/search</code>, while those recorded on
+ * other threads only have the name of the phase or counter. Invocations are always
+ * measured, and with the <code>gap.eclipse.jdt.core/debug/completion</code>
+ * tracing option each one is also traced with the time of its phases.
+ * </p>
+ */
+public final class CompletionMetrics implements DebugOptionsListener {
+	public static final String TOTAL = "total";
+
+	public static final String INITIALIZE_CONTEXT = "initializeRequiredContext";
+
+	public static final String FIND_IN_AST = "findInAST";
+
+	public static final String RESOLVE_BINDINGS = "resolveBindings";
+
+	public static final String SEARCH = "search";
+
+	public static final String PROPOSALS = "proposals";
+
+	public static final String TIMEOUT = "timeout";
+
+	public static final String OVERRUN = "overrun";
+
+	private static final String TRACE_OPTION = "/debug/completion";
+
+	private static final Sample NONE = new Sample(null, null, 0);
+
+	private final Map<String, Histogram> timers = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<Invocation> invocation = new ThreadLocal<>();
+
+	private volatile DebugTrace trace;
+
+	private volatile Instant since = Instant.now();
+
+	/**
+	 * Starts an invocation of the given computer on the current thread.
+	 *
+	 * @return the sample of the whole invocation, which ends it when closed.
+	 */
+	public Sample begin(String computer) {
+		if (invocation.get() != null) {
+			// a nested invocation is measured as part of the outer one.
+			return NONE;
+		}
+		final Invocation current = new Invocation(computer, trace != null);
+		invocation.set(current);
+		return new Sample(this, current, System.nanoTime());
+	}
+
+	/**
+	 * Starts measuring a phase of the invocation of the current thread.
+	 */
+	public Sample time(String phase) {
+		final Invocation current = invocation.get();
+		if (current != null && current.phases.contains(phase)) {
+			// the outer sample of a phase already covers a nested one.
+			return NONE;
+		}
+		return new Sample(this, current, phase, System.nanoTime());
+	}
+
+	/**
+	 * Counts a hit or a miss of the given cache.
+	 */
+	public void cacheAccess(String cache, boolean hit) {
+		increment(cache + (hit ? ".hit" : ".miss"));
+	}
+
+	/**
+	 * Increments the counter with the given name of the computer running on the
+	 * current thread.
+	 */
+	public void increment(String counter) {
+		final Invocation current = invocation.get();
+		counters.computeIfAbsent(key(current, counter), k -> new LongAdder()).increment();
+		if (current != null && current.details != null) {
+			current.details.append(' ').append(counter);
+		}
+	}
+
+	public void reset() {
+		timers.clear();
+		counters.clear();
+		since = Instant.now();
+	}
+
+	public Instant getSince() {
+		return since;
+	}
+
+	/**
+	 * Returns the current values of the timers, sorted by name.
+	 */
+	public List<TimerSnapshot> timers() {
+		final List<TimerSnapshot> result = new ArrayList<>();
+		new TreeMap<>(timers).forEach((name, histogram) -> result.add(new TimerSnapshot(name, histogram)));
+		return result;
+	}
+
+	/**
+	 * Returns the current values of the counters, sorted by name.
+	 */
+	public Map<String, Long> counters() {
+		final Map<String, Long> result = new TreeMap<>();
+		counters.forEach((name, counter) -> result.put(name, counter.sum()));
+		return result;
+	}
+
+	/**
+	 * Writes the timers with their histograms and the counters as JSON to the
+	 * given file.
+	 */
+	public void export(Path file) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+				JsonWriter writer = new JsonWriter(out)) {
+			writer.setIndent("  ");
+			writer.beginObject();
+			writer.name("since").value(since.toString());
+			writer.name("exported").value(Instant.now().toString());
+			writer.name("unit").value("us");
+			writer.name("timers").beginArray();
+			for (Map.Entry<String, Histogram> entry : new TreeMap<>(timers).entrySet()) {
+				final Histogram histogram = entry.getValue();
+				writer.beginObject();
+				writer.name("name").value(entry.getKey());
+				writer.name("count").value(histogram.getCount());
+				writer.name("mean").value(histogram.getMean());
+				writer.name("p50").value(histogram.getValueAtPercentile(50));
+				writer.name("p90").value(histogram.getValueAtPercentile(90));
+				writer.name("p99").value(histogram.getValueAtPercentile(99));
+				writer.name("p999").value(histogram.getValueAtPercentile(99.9));
+				writer.name("max").value(histogram.getMax());
+				writer.name("buckets").beginArray();
+				final IOException[] error = new IOException[1];
+				histogram.forEachBucket((from, to, count) -> {
+					try {
+						writer.beginArray().value(from).value(to).value(count).endArray();
+					} catch (IOException e) {
+						error[0] = e;
+					}
+				});
+				if (error[0] != null) {
+					throw error[0];
+				}
+				writer.endArray();
+				writer.endObject();
+			}
+			writer.endArray();
+			writer.name("counters").beginObject();
+			for (Map.Entry<String, Long> entry : counters().entrySet()) {
+				writer.name(entry.getKey()).value(entry.getValue());
+			}
+			writer.endObject();
+			writer.endObject();
+		}
+	}
+
+	@Override
+	public void optionsChanged(DebugOptions options) {
+		trace = options.getBooleanOption(CorePlugin.PLUGIN_ID + TRACE_OPTION, false)
+				? options.newDebugTrace(CorePlugin.PLUGIN_ID)
+				: null;
+	}
+
+	private void record(Invocation current, String phase, long nanos) {
+		final long micros = nanos / 1000;
+		timers.computeIfAbsent(key(current, phase), k -> new Histogram()).record(micros);
+		if (current == null) {
+			return;
+		}
+
+		if (!TOTAL.equals(phase)) {
+			current.phases.remove(phase);
+			if (current.details != null) {
+				current.details.append(' ').append(phase).append('=').append(micros / 1000.0).append("ms");
+			}
+			return;
+		}
+
+		invocation.remove();
+		final DebugTrace currentTrace = trace;
+		if (currentTrace != null && current.details != null) {
+			currentTrace.trace(TRACE_OPTION,
+					String.format("%s took %.1fms:%s", current.computer, micros / 1000.0, current.details));
+		}
+	}
+
+	/**
+	 * Returns the name of a timer or counter, which is qualified by the computer
+	 * if the current thread runs one. Work done for a computer by other threads
+	 * is only counted in total.
+	 */
+	private static String key(Invocation current, String name) {
+		return current == null ? name : current.computer + "/" + name;
+	}
+
+	/**
+	 * A running measurement, recorded when it is closed.
+	 */
+	public static final class Sample implements AutoCloseable {
+		private final CompletionMetrics metrics;
+
+		private final Invocation invocation;
+
+		private final String phase;
+
+		private final long start;
+
+		private Sample(CompletionMetrics metrics, Invocation invocation, long start) {
+			this(metrics, invocation, TOTAL, start);
+		}
+
+		private Sample(CompletionMetrics metrics, Invocation invocation, String phase, long start) {
+			this.metrics = metrics;
+			this.invocation = invocation;
+			this.phase = phase;
+			this.start = start;
+			if (invocation != null && !TOTAL.equals(phase)) {
+				invocation.phases.add(phase);
+			}
+		}
+
+		@Override
+		public void close() {
+			if (metrics != null) {
+				metrics.record(invocation, phase, System.nanoTime() - start);
+			}
+		}
+	}
+
+	public static final class TimerSnapshot {
+		private final String name;
+
+		private final long count;
+
+		private final double mean;
+
+		private final long p50;
+
+		private final long p90;
+
+		private final long p99;
+
+		private final long max;
+
+		private TimerSnapshot(String name, Histogram histogram) {
+			this.name = name;
+			this.count = histogram.getCount();
+			this.mean = histogram.getMean();
+			this.p50 = histogram.getValueAtPercentile(50);
+			this.p90 = histogram.getValueAtPercentile(90);
+			this.p99 = histogram.getValueAtPercentile(99);
+			this.max = histogram.getMax();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the mean time in microseconds, like the other values.
+		 */
+		public double getMean() {
+			return mean;
+		}
+
+		public long getP50() {
+			return p50;
+		}
+
+		public long getP90() {
+			return p90;
+		}
+
+		public long getP99() {
+			return p99;
+		}
+
+		public long getMax() {
+			return max;
+		}
+	}
+
+	private static final class Invocation {
+		private final String computer;
+
+		// the phases currently measured, so nested samples of the same phase are ignored.
+		private final List<String> phases = new ArrayList<>(4);
+
+		private final StringBuilder details;
+
+		private Invocation(String computer, boolean traced) {
+			this.computer = computer;
+			this.details = traced ? new StringBuilder() : null;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package org.gap.eclipse.jdt.metrics;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Function;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.ui.ISharedImages;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.part.ViewPart;
+import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics.TimerSnapshot;
+
+/**
+ * Shows the completion timers, refreshed every
+ * {@value #REFRESH_MILLIS} milliseconds while the view is visible.
+ */
+public class CompletionMetricsView extends ViewPart {
+	private static final int REFRESH_MILLIS = 2000;
+
+	private TableViewer viewer;
+
+	private final Runnable refresher = this::refreshPeriodically;
+
+	@Override
+	public void createPartControl(Composite parent) {
+		viewer = new TableViewer(parent, SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL);
+		viewer.getTable().setHeaderVisible(true);
+		viewer.getTable().setLinesVisible(true);
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+
+		addColumn("Timer", 300, TimerSnapshot::getName);
+		addColumn("Count", 70, t -> String.valueOf(t.getCount()));
+		addColumn("Mean (ms)", 80, t -> millis(t.getMean()));
+		addColumn("p50 (ms)", 80, t -> millis(t.getP50()));
+		addColumn("p90 (ms)", 80, t -> millis(t.getP90()));
+		addColumn("p99 (ms)", 80, t -> millis(t.getP99()));
+		addColumn("Max (ms)", 80, t -> millis(t.getMax()));
+
+		final IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+		toolBar.add(new Action("Export...") {
+			{
+				setImageDescriptor(PlatformUI.getWorkbench().getSharedImages()
+						.getImageDescriptor(ISharedImages.IMG_ETOOL_SAVEAS_EDIT));
+			}
+
+			@Override
+			public void run() {
+				export();
+			}
+		});
+		toolBar.add(new Action("Reset") {
+			{
+				setImageDescriptor(PlatformUI.getWorkbench().getSharedImages()
+						.getImageDescriptor(ISharedImages.IMG_ETOOL_CLEAR));
+			}
+
+			@Override
+			public void run() {
+				metrics().reset();
+				refresh();
+			}
+		});
+
+		refreshPeriodically();
+	}
+
+	private void addColumn(String title, int width, Function<TimerSnapshot, String> text) {
+		final TableViewerColumn column = new TableViewerColumn(viewer, SWT.NONE);
+		column.getColumn().setText(title);
+		column.getColumn().setWidth(width);
+		column.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				return text.apply((TimerSnapshot) element);
+			}
+		});
+	}
+
+	private void refreshPeriodically() {
+		if (viewer == null || viewer.getControl().isDisposed()) {
+			return;
+		}
+		if (viewer.getControl().isVisible()) {
+			refresh();
+		}
+		viewer.getControl().getDisplay().timerExec(REFRESH_MILLIS, refresher);
+	}
+
+	private void refresh() {
+		final CompletionMetrics metrics = metrics();
+		if (metrics != null) {
+			viewer.setInput(metrics.timers());
+			setContentDescription(String.format("Since %s, counters: %s", metrics.getSince(), metrics.counters()));
+		}
+	}
+
+	private void export() {
+		final FileDialog dialog = new FileDialog(getSite().getShell(), SWT.SAVE);
+		dialog.setOverwrite(true);
+		dialog.setFileName("completion-metrics.json");
+		dialog.setFilterExtensions(new String[] { "*.json" });
+		dialog.setText("Export Completion Metrics");
+		final String file = dialog.open();
+		if (file == null) {
+			return;
+		}
+
+		try {
+			metrics().export(Paths.get(file));
+		} catch (IOException e) {
+			CorePlugin.getDefault().logError("Error exporting completion metrics", e);
+			MessageDialog.openError(getSite().getShell(), "Export Completion Metrics", e.getMessage());
+		}
+	}
+
+	private static CompletionMetrics metrics() {
+		return CorePlugin.getDefault().getCompletionMetrics();
+	}
+
+	private static String millis(double micros) {
+		return String.format("%.1f", micros / 1000);
+	}
+
+	@Override
+	public void setFocus() {
+		viewer.getControl().setFocus();
+	}
+
+	@Override
+	public void dispose() {
+		if (viewer != null && !viewer.getControl().isDisposed()) {
+			viewer.getControl().getDisplay().timerExec(-1, refresher);
+		}
+		super.dispose();
+	}
+}
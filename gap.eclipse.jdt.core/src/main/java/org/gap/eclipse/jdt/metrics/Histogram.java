@@ -0,0 +1,119 @@
+package org.gap.eclipse.jdt.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram in microseconds with buckets in the style of HdrHistogram.
+ * Values below {@value #SUB_BUCKETS} are counted exactly, and each power of two
+ * above is split into {@value #HALF_SUB_BUCKETS} buckets, so every value is
+ * known within about 3%. Recording is lock free and takes constant time.
+ */
+final class Histogram {
+	private static final int SUB_BUCKETS = 64;
+
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+	// values up to 2^40 microseconds, which is about 12 days.
+	private static final int MAX_EXPONENT = 40;
+
+	private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+	private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong total = new AtomicLong();
+
+	private final AtomicLong max = new AtomicLong();
+
+	void record(long micros) {
+		final long value = Math.max(0, Math.min(micros, MAX_VALUE));
+		counts.incrementAndGet(index(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	long getCount() {
+		return count.get();
+	}
+
+	long getMax() {
+		return max.get();
+	}
+
+	double getMean() {
+		final long n = count.get();
+		return n == 0 ? 0 : (double) total.get() / n;
+	}
+
+	/**
+	 * Returns the highest value of the bucket holding the value at the given
+	 * percentile, so the result is never lower than the actual value.
+	 */
+	long getValueAtPercentile(double percentile) {
+		final long n = count.get();
+		if (n == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBound(i) - 1, max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Passes the non empty buckets to the given consumer, from the lowest to the
+	 * highest.
+	 */
+	void forEachBucket(BucketConsumer consumer) {
+		for (int i = 0; i < BUCKETS; i++) {
+			final long bucketCount = counts.get(i);
+			if (bucketCount > 0) {
+				consumer.accept(lowerBound(i), upperBound(i), bucketCount);
+			}
+		}
+	}
+
+	private static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - (Integer.numberOfTrailingZeros(HALF_SUB_BUCKETS));
+		return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	private static long lowerBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		final int shift = index / HALF_SUB_BUCKETS - 1;
+		return (long) (index - shift * HALF_SUB_BUCKETS) << shift;
+	}
+
+	private static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index + 1;
+		}
+		final int shift = index / HALF_SUB_BUCKETS - 1;
+		return (long) (index - shift * HALF_SUB_BUCKETS + 1) << shift;
+	}
+
+	interface BucketConsumer {
+		/**
+		 * @param from  the lowest value of the bucket.
+		 * @param to    the value after the highest value of the bucket.
+		 * @param count the number of values recorded in the bucket.
+		 */
+		void accept(long from, long to, long count);
+	}
+}
@@ -196,6 +196,12 @@ public class OpenSymbolDialog extends FilteredItemsSelectionDialog {
             } else {
                 memberName = pattern;
                 filter.setFullyQualifiedSearch(false);
+                if (SymbolIndex.isSupported(pattern) && CorePlugin.getDefault().getSymbolIndex().find(pattern,
+                        isEmptyWorkingSet() ? null : scope, member -> contentProvider.add(member, itemsFilter),
+                        monitor)) {
+                    filter.setIndexed(true);
+                    return;
+                }
             }
         }
 
@@ -284,6 +290,7 @@ public class OpenSymbolDialog extends FilteredItemsSelectionDialog {
 
         private boolean resultHasBothTypes;
         private boolean fullyQualifiedSearch;
+        private boolean indexed;
         private IWorkingSet workingSet;
 
 
@@ -310,6 +317,12 @@ public class OpenSymbolDialog extends FilteredItemsSelectionDialog {
 
         @Override
         public boolean isSubFilter(ItemsFilter filter) {
+            if (indexed) {
+                // the index returns every member with a sub-word starting with the pattern, which
+                // includes the members of any longer simple pattern.
+                final String pattern = filter.getPattern();
+                return super.isSubFilter(filter) && !isQualifiedPattern(pattern) && !isRegex(pattern);
+            }
             return super.isSubFilter(filter) && resultHasBothTypes;
         }
 
@@ -321,6 +334,10 @@ public class OpenSymbolDialog extends FilteredItemsSelectionDialog {
             this.fullyQualifiedSearch = fullyQualifiedSearch;
         }
 
+        public void setIndexed(boolean indexed) {
+            this.indexed = indexed;
+        }
+
         @Override
         public boolean equalsFilter(ItemsFilter filter) {
             return ((SymbolsFilter) filter).workingSet == this.workingSet && super.equalsFilter(filter);
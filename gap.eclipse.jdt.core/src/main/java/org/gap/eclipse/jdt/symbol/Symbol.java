@@ -0,0 +1,85 @@
+package org.gap.eclipse.jdt.symbol;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * A member of the {@link SymbolTable}, identified by the handle of its
+ * declaring type and the rest of its own handle. The {@link IMember} is only
+ * created when it is requested.
+ */
+final class Symbol {
+	// the characters which separate the parts of a handle identifier.
+	private static final String DELIMITERS = "=/<{('[^~|!";
+
+	final String name;
+
+	final String type;
+
+	final String key;
+
+	final String unit;
+
+	Symbol(String name, String type, String key, String unit) {
+		this.name = name;
+		this.type = type;
+		this.key = key;
+		this.unit = unit;
+	}
+
+	static Symbol of(IMember member) {
+		final String handle = member.getHandleIdentifier();
+		final IType declaringType = member.getDeclaringType();
+		final String type = declaringType == null ? "" : declaringType.getHandleIdentifier();
+		final ICompilationUnit unit = member.getCompilationUnit();
+		if (!handle.startsWith(type)) {
+			return new Symbol(member.getElementName(), "", handle, unit == null ? null : unit.getHandleIdentifier());
+		}
+		return new Symbol(member.getElementName(), type, handle.substring(type.length()),
+				unit == null ? null : unit.getHandleIdentifier());
+	}
+
+	String handle() {
+		return type.concat(key);
+	}
+
+	/**
+	 * Returns the member, or <code>null</code> if the handle no longer refers to
+	 * one.
+	 */
+	IMember member() {
+		final IJavaElement element = JavaCore.create(handle());
+		return element instanceof IMember ? (IMember) element : null;
+	}
+
+	/**
+	 * Returns <code>true</code> if the member is inside the given element, which
+	 * is the case when the handle of the element is a whole part of its handle.
+	 */
+	boolean isInside(IJavaElement element) {
+		final String handle = handle();
+		final String prefix = element.getHandleIdentifier();
+		return handle.startsWith(prefix)
+				&& (handle.length() == prefix.length() || DELIMITERS.indexOf(handle.charAt(prefix.length())) >= 0);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + key.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Symbol)) {
+			return false;
+		}
+		final Symbol other = (Symbol) obj;
+		return type.equals(other.type) && key.equals(other.key);
+	}
+}
@@ -0,0 +1,394 @@
+package org.gap.eclipse.jdt.symbol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.Messages;
+
+/**
+ * In memory index of the methods and fields declared in the workspace, used by
+ * the {@link OpenSymbolDialog} to find the members matching a simple pattern
+ * without searching.
+ * <p>
+ * The index is built in the background the first time it is requested. Saved
+ * compilation units are applied from Java element deltas into an overlay on
+ * top of the table, which is merged into a new table once it holds more
+ * members than the <code>org.gap.eclipse.jdt.symbol.overlayLimit</code> system
+ * property. When projects, package fragment roots or packages are added,
+ * removed or changed as a whole, only their members are dropped and searched
+ * again.
+ * </p>
+ * <p>
+ * The index keeps the handles of the members, the {@link IMember}s are only
+ * created for the members which match a pattern.
+ * </p>
+ */
+public final class SymbolIndex implements IElementChangedListener {
+	private static final int OVERLAY_LIMIT = Integer.getInteger("org.gap.eclipse.jdt.symbol.overlayLimit", 5_000);
+
+	private final Queue<ICompilationUnit> changes = new ConcurrentLinkedQueue<>();
+
+	// projects, roots and packages whose members are searched again.
+	private final Queue<IJavaElement> stale = new ConcurrentLinkedQueue<>();
+
+	private final AtomicBoolean rebuild = new AtomicBoolean();
+
+	private final Job job;
+
+	private volatile Snapshot snapshot;
+
+	public SymbolIndex() {
+		job = new Job(Messages.SymbolIndex_JobName) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return update(monitor);
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Passes the members in the given scope which have a sub-word starting with
+	 * the first camel case part of the given pattern to the given requestor.
+	 *
+	 * @return <code>false</code> if the index is not ready yet, in which case it
+	 *         is scheduled to be built and the caller should search instead.
+	 */
+	public boolean find(String pattern, IJavaSearchScope scope, Consumer<IMember> requestor,
+			IProgressMonitor monitor) {
+		final Snapshot current = snapshot;
+		if (current == null) {
+			rebuild.set(true);
+			if (job.getState() == Job.NONE) {
+				job.schedule();
+			}
+			return false;
+		}
+
+		final String prefix = prefix(pattern);
+		final int[] count = new int[1];
+		final Consumer<IMember> accept = member -> {
+			if ((++count[0] & 0x3ff) == 0 && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			if (member != null && (scope == null || scope.encloses(member))) {
+				requestor.accept(member);
+			}
+		};
+
+		current.table.find(prefix, symbol -> {
+			// members of changed units are read from the overlay.
+			if (symbol.unit == null || !current.overlay.containsKey(symbol.unit)) {
+				accept.accept(symbol.member());
+			}
+		});
+		current.overlay.values().forEach(members -> members.stream()
+				.filter(m -> SymbolTable.hasKey(m.getElementName(), prefix)).forEach(accept));
+		return true;
+	}
+
+	/**
+	 * Returns the lower case first camel case part of the given pattern, which
+	 * every matching name has a sub-word starting with.
+	 */
+	private static String prefix(String pattern) {
+		int end = 1;
+		while (end < pattern.length() && Character.isJavaIdentifierPart(pattern.charAt(end))
+				&& !Character.isUpperCase(pattern.charAt(end))) {
+			end++;
+		}
+		return pattern.substring(0, end).toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * Returns <code>true</code> if the given pattern is a name or the start of a
+	 * name the index can be used for, optionally followed by the space or angle
+	 * bracket which ends an exact pattern.
+	 */
+	public static boolean isSupported(String pattern) {
+		final String name = pattern.endsWith(" ") || pattern.endsWith("<")
+				? pattern.substring(0, pattern.length() - 1)
+				: pattern;
+		if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+			return false;
+		}
+		return name.chars().allMatch(Character::isJavaIdentifierPart);
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (snapshot == null && !rebuild.get()) {
+			// the index was not requested yet.
+			return;
+		}
+		collect(event.getDelta());
+		if (rebuild.get() || !changes.isEmpty() || !stale.isEmpty()) {
+			job.schedule(500);
+		}
+	}
+
+	/**
+	 * Collects the changed compilation units of the given delta, and the
+	 * elements whose members have to be searched again.
+	 */
+	private void collect(IJavaElementDelta delta) {
+		final IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_PROJECT:
+			// a changed classpath is reported by the deltas of the roots.
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+				stale.add(element);
+				return;
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_ADDED_TO_CLASSPATH
+					| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+				stale.add(element);
+				return;
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT:
+			if (delta.getKind() != IJavaElementDelta.CHANGED) {
+				stale.add(element);
+				return;
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+			final ICompilationUnit unit = (ICompilationUnit) element;
+			if (!unit.isWorkingCopy() && (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags()
+					& (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_FINE_GRAINED)) != 0)) {
+				changes.add(unit);
+			}
+			return;
+		default:
+			break;
+		}
+
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			collect(child);
+		}
+	}
+
+	private IStatus update(IProgressMonitor monitor) {
+		if (rebuild.getAndSet(false)) {
+			// the search reads the current content of the changed units.
+			changes.clear();
+			stale.clear();
+			try {
+				snapshot = new Snapshot(SymbolTable.build(search(SearchEngine.createWorkspaceScope(), monitor)),
+						Collections.emptyMap());
+			} catch (OperationCanceledException e) {
+				rebuild.set(true);
+				return Status.CANCEL_STATUS;
+			} catch (CoreException e) {
+				CorePlugin.getDefault().logError(e.getMessage(), e);
+				return Status.OK_STATUS;
+			}
+		}
+
+		if (snapshot == null) {
+			return Status.OK_STATUS;
+		}
+		if (!stale.isEmpty()) {
+			final List<IJavaElement> elements = new ArrayList<>();
+			IJavaElement element;
+			while ((element = stale.poll()) != null) {
+				elements.add(element);
+			}
+			try {
+				snapshot = replace(snapshot, elements, monitor);
+			} catch (OperationCanceledException e) {
+				stale.addAll(elements);
+				return Status.CANCEL_STATUS;
+			} catch (CoreException e) {
+				CorePlugin.getDefault().logError(e.getMessage(), e);
+			}
+		}
+
+		final Snapshot current = snapshot;
+		if (changes.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		final Map<String, List<IMember>> overlay = new HashMap<>(current.overlay);
+		ICompilationUnit unit;
+		while ((unit = changes.poll()) != null) {
+			try {
+				overlay.put(unit.getHandleIdentifier(), members(unit));
+			} catch (JavaModelException e) {
+				CorePlugin.getDefault().logError(e.getMessage(), e);
+			}
+		}
+
+		if (overlay.values().stream().mapToInt(List::size).sum() > OVERLAY_LIMIT) {
+			snapshot = new Snapshot(merge(current.table, overlay), Collections.emptyMap());
+		} else {
+			snapshot = new Snapshot(current.table, overlay);
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Drops the members of the given elements from the snapshot and searches
+	 * the elements which still exist again. The overlay is merged into the new
+	 * table.
+	 */
+	private static Snapshot replace(Snapshot current, List<IJavaElement> elements, IProgressMonitor monitor)
+			throws CoreException {
+		final List<IJavaElement> scope = new ArrayList<>();
+		for (IJavaElement element : elements) {
+			if (element.exists()) {
+				scope.add(element);
+			} else if (element instanceof IPackageFragmentRoot && ((IPackageFragmentRoot) element).isArchive()) {
+				// the archive may still be on the classpath of other projects.
+				scope.addAll(rootsOf(element.getPath()));
+			}
+		}
+		final List<Symbol> searched = scope.isEmpty() ? Collections.emptyList()
+				: search(SearchEngine.createJavaSearchScope(scope.toArray(new IJavaElement[0])), monitor);
+
+		// archives shared by several projects are found again through the other projects.
+		final Set<Symbol> symbols = new LinkedHashSet<>(current.table.size() + searched.size());
+		current.table.forEach(symbol -> {
+			if ((symbol.unit == null || !current.overlay.containsKey(symbol.unit)) && !isInside(symbol, elements)) {
+				symbols.add(symbol);
+			}
+		});
+		current.overlay.values().forEach(overlayMembers -> overlayMembers.stream().map(Symbol::of)
+				.filter(s -> !isInside(s, elements)).forEach(symbols::add));
+		symbols.addAll(searched);
+		return new Snapshot(SymbolTable.build(new ArrayList<>(symbols)), Collections.emptyMap());
+	}
+
+	private static boolean isInside(Symbol symbol, List<IJavaElement> elements) {
+		for (IJavaElement element : elements) {
+			if (symbol.isInside(element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<IPackageFragmentRoot> rootsOf(IPath path) throws JavaModelException {
+		final List<IPackageFragmentRoot> roots = new ArrayList<>();
+		for (IJavaProject project : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+			final IPackageFragmentRoot root = project.findPackageFragmentRoot(path);
+			if (root != null) {
+				roots.add(root);
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * Returns the symbols of the methods and fields declared in the given scope.
+	 * The members found are not kept, so the index does not hold the handles of
+	 * all the members of the libraries.
+	 */
+	private static List<Symbol> search(IJavaSearchScope scope, IProgressMonitor monitor) throws CoreException {
+		final SearchPattern pattern = SearchPattern.createOrPattern(
+				SearchPattern.createPattern("*", IJavaSearchConstants.METHOD, IJavaSearchConstants.DECLARATIONS,
+						SearchPattern.R_PATTERN_MATCH),
+				SearchPattern.createPattern("*", IJavaSearchConstants.FIELD, IJavaSearchConstants.DECLARATIONS,
+						SearchPattern.R_PATTERN_MATCH));
+		final List<Symbol> symbols = new ArrayList<>();
+		new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
+				scope, new SearchRequestor() {
+					@Override
+					public void acceptSearchMatch(SearchMatch match) throws CoreException {
+						if (match.getElement() instanceof IMember && !isLambda(match.getElement())) {
+							symbols.add(Symbol.of((IMember) match.getElement()));
+						}
+					}
+				}, monitor);
+		return symbols;
+	}
+
+	private static boolean isLambda(Object element) {
+		return element instanceof IMethod && ((IMethod) element).isLambdaMethod();
+	}
+
+	private static List<IMember> members(ICompilationUnit unit) throws JavaModelException {
+		if (!unit.exists() || !unit.getJavaProject().isOnClasspath(unit)) {
+			return Collections.emptyList();
+		}
+
+		final List<IMember> members = new ArrayList<>();
+		for (IType type : unit.getAllTypes()) {
+			Collections.addAll(members, type.getMethods());
+			Collections.addAll(members, type.getFields());
+		}
+		return members;
+	}
+
+	private static SymbolTable merge(SymbolTable table, Map<String, List<IMember>> overlay) {
+		final List<Symbol> symbols = new ArrayList<>(table.size());
+		table.forEach(symbol -> {
+			if (symbol.unit == null || !overlay.containsKey(symbol.unit)) {
+				symbols.add(symbol);
+			}
+		});
+		overlay.values().forEach(members -> members.stream().map(Symbol::of).forEach(symbols::add));
+		return SymbolTable.build(symbols);
+	}
+
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		job.cancel();
+		changes.clear();
+		stale.clear();
+		snapshot = null;
+	}
+
+	private static final class Snapshot {
+		private final SymbolTable table;
+
+		private final Map<String, List<IMember>> overlay;
+
+		private Snapshot(SymbolTable table, Map<String, List<IMember>> overlay) {
+			this.table = table;
+			this.overlay = overlay;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package org.gap.eclipse.jdt.symbol;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.core.IMember;
+
+/**
+ * Immutable table of member names sorted by their sub-word keys.
+ * <p>
+ * Every name has a key for each of its sub-words, which is the lower case rest
+ * of the name from the start of the sub-word. The keys are not stored as
+ * strings, but as the name and the offset they start at, sorted by the text
+ * they refer to. Looking up a prefix is a binary search for the first key
+ * which starts with it. The members are grouped by name so each name is only
+ * stored once.
+ * </p>
+ * <p>
+ * Members are not kept as {@link IMember}s, but as the handle of their
+ * declaring type, which is stored once per type, and the rest of their handle.
+ * The members are only created for the symbols which are looked up.
+ * </p>
+ */
+final class SymbolTable {
+	private final String[] names;
+
+	private final String[] exactNames;
+
+	private final int[] keyNames;
+
+	private final int[] keyOffsets;
+
+	private final int[] nameStarts;
+
+	private final String[] types;
+
+	private final int[] memberTypes;
+
+	private final String[] memberKeys;
+
+	private final String[] units;
+
+	private SymbolTable(String[] names, String[] exactNames, int[] keyNames, int[] keyOffsets, int[] nameStarts,
+			String[] types, int[] memberTypes, String[] memberKeys, String[] units) {
+		this.names = names;
+		this.exactNames = exactNames;
+		this.keyNames = keyNames;
+		this.keyOffsets = keyOffsets;
+		this.nameStarts = nameStarts;
+		this.types = types;
+		this.memberTypes = memberTypes;
+		this.memberKeys = memberKeys;
+		this.units = units;
+	}
+
+	static SymbolTable build(List<Symbol> source) {
+		final Map<String, Integer> nameIds = new HashMap<>();
+		final List<String> exactNames = new ArrayList<>();
+		final int[] memberNames = new int[source.size()];
+		for (int i = 0; i < memberNames.length; i++) {
+			final String name = source.get(i).name;
+			memberNames[i] = nameIds.computeIfAbsent(name, n -> {
+				exactNames.add(n);
+				return exactNames.size() - 1;
+			});
+		}
+
+		// group the members by name.
+		final int[] nameStarts = new int[exactNames.size() + 1];
+		for (int name : memberNames) {
+			nameStarts[name + 1]++;
+		}
+		for (int i = 1; i < nameStarts.length; i++) {
+			nameStarts[i] += nameStarts[i - 1];
+		}
+		final int[] next = nameStarts.clone();
+		final Map<String, Integer> typeIds = new HashMap<>();
+		final List<String> types = new ArrayList<>();
+		final int[] memberTypes = new int[memberNames.length];
+		final String[] memberKeys = new String[memberNames.length];
+		final String[] units = new String[memberNames.length];
+		// the handles of the units and the keys of overloads and common names are shared.
+		final Map<String, String> strings = new HashMap<>();
+		for (int i = 0; i < memberNames.length; i++) {
+			final int slot = next[memberNames[i]]++;
+			final Symbol symbol = source.get(i);
+			memberTypes[slot] = typeIds.computeIfAbsent(symbol.type, t -> {
+				types.add(t);
+				return types.size() - 1;
+			});
+			memberKeys[slot] = strings.computeIfAbsent(symbol.key, k -> k);
+			units[slot] = symbol.unit == null ? null : strings.computeIfAbsent(symbol.unit, u -> u);
+		}
+
+		final String[] names = new String[exactNames.size()];
+		final List<int[]> keys = new ArrayList<>();
+		for (int i = 0; i < names.length; i++) {
+			names[i] = exactNames.get(i).toLowerCase(Locale.ENGLISH);
+			final String exact = exactNames.get(i);
+			for (int offset = 0; offset < exact.length(); offset++) {
+				// offsets don't match if lower casing changed the length.
+				if (offset == 0 || (isSubWordStart(exact, offset) && names[i].length() == exact.length())) {
+					keys.add(new int[] { i, offset });
+				}
+			}
+		}
+		keys.sort((a, b) -> compare(names[a[0]], a[1], names[b[0]], b[1]));
+
+		final int[] keyNames = new int[keys.size()];
+		final int[] keyOffsets = new int[keys.size()];
+		for (int i = 0; i < keyNames.length; i++) {
+			keyNames[i] = keys.get(i)[0];
+			keyOffsets[i] = keys.get(i)[1];
+		}
+		return new SymbolTable(names, exactNames.toArray(new String[0]), keyNames, keyOffsets, nameStarts,
+				types.toArray(new String[0]), memberTypes, memberKeys, units);
+	}
+
+	/**
+	 * Returns <code>true</code> if a sub-word of the given name starts at the
+	 * given offset. Every upper case letter, every letter after a character which
+	 * is not one, and the first digit of a number start a sub-word.
+	 */
+	static boolean isSubWordStart(String name, int offset) {
+		if (offset == 0) {
+			return true;
+		}
+		final char c = name.charAt(offset);
+		final char previous = name.charAt(offset - 1);
+		if (Character.isDigit(c)) {
+			return !Character.isDigit(previous);
+		}
+		return Character.isLetter(c) && (Character.isUpperCase(c) || !Character.isLetterOrDigit(previous));
+	}
+
+	/**
+	 * Returns <code>true</code> if a sub-word of the given name starts with the
+	 * given lower case prefix.
+	 */
+	static boolean hasKey(String name, String prefix) {
+		final String lower = name.toLowerCase(Locale.ENGLISH);
+		if (lower.length() != name.length()) {
+			return lower.startsWith(prefix);
+		}
+		for (int offset = 0; offset + prefix.length() <= name.length(); offset++) {
+			if (isSubWordStart(name, offset) && lower.startsWith(prefix, offset)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	int size() {
+		return memberKeys.length;
+	}
+
+	/**
+	 * Passes the symbols with a sub-word starting with the given lower case
+	 * prefix to the given consumer.
+	 */
+	void find(String prefix, Consumer<Symbol> consumer) {
+		int low = 0;
+		int high = keyNames.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (compare(names[keyNames[mid]], keyOffsets[mid], prefix, 0) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		// a name can have several sub-words which start with the prefix.
+		final BitSet found = new BitSet(names.length);
+		for (int key = low; key < keyNames.length && names[keyNames[key]].startsWith(prefix, keyOffsets[key]); key++) {
+			final int name = keyNames[key];
+			if (!found.get(name)) {
+				found.set(name);
+				for (int member = nameStarts[name]; member < nameStarts[name + 1]; member++) {
+					consumer.accept(symbol(name, member));
+				}
+			}
+		}
+	}
+
+	void forEach(Consumer<Symbol> consumer) {
+		for (int name = 0; name < exactNames.length; name++) {
+			for (int member = nameStarts[name]; member < nameStarts[name + 1]; member++) {
+				consumer.accept(symbol(name, member));
+			}
+		}
+	}
+
+	private Symbol symbol(int name, int member) {
+		return new Symbol(exactNames[name], types[memberTypes[member]], memberKeys[member], units[member]);
+	}
+
+	private static int compare(String left, int leftOffset, String right, int rightOffset) {
+		final int length = Math.min(left.length() - leftOffset, right.length() - rightOffset);
+		for (int i = 0; i < length; i++) {
+			final char l = left.charAt(leftOffset + i);
+			final char r = right.charAt(rightOffset + i);
+			if (l != r) {
+				return l - r;
+			}
+		}
+		return (left.length() - leftOffset) - (right.length() - rightOffset);
+	}
+}
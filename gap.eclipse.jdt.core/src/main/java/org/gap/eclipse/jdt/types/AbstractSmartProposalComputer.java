@@ -1,15 +1,16 @@
 package org.gap.eclipse.jdt.types;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.core.CompletionProposal;
@@ -22,9 +23,9 @@ import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
 import org.eclipse.jdt.internal.codeassist.impl.AssistOptions;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaSourceViewer;
-import org.eclipse.jdt.ui.text.java.CompletionProposalCollector;
 import org.eclipse.jdt.ui.text.java.ContentAssistInvocationContext;
 import org.eclipse.jdt.ui.text.java.IJavaCompletionProposalComputer;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
@@ -33,8 +34,11 @@ import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.jface.text.contentassist.IContextInformation;
 import org.gap.eclipse.jdt.CorePlugin;
 import org.gap.eclipse.jdt.common.Log;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics;
 import org.osgi.framework.Version;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
 
 @SuppressWarnings("restriction")
@@ -42,6 +46,10 @@ public abstract class AbstractSmartProposalComputer implements IJavaCompletionPr
 
 	protected static final long TIMEOUT = Long.getLong("org.gap.eclipse.jdt.types.smartSearchTimeout",
 			defaultTimeout());
+	private static final long FIRST_BATCH_TIMEOUT = Long.getLong("org.gap.eclipse.jdt.types.firstBatchTimeout", 300);
+	// budgets by the invocation context of their round, compared by identity.
+	private static final Cache<ContentAssistInvocationContext, CompletionBudget> BUDGETS = CacheBuilder.newBuilder()
+			.weakKeys().build();
 	private Set<String> unsupportedTypes = Sets.newHashSet("java.lang.String", "java.lang.Object",
 			"java.lang.Cloneable", "java.lang.Throwable", "java.lang.Exception");
 
@@ -110,9 +118,10 @@ public abstract class AbstractSmartProposalComputer implements IJavaCompletionPr
 
 	protected final Set<IType> resolveTypesFromProject(@NonNull Collection<String> typeSignatures,
 			@NonNull JavaContentAssistInvocationContext context, @NonNull IProgressMonitor monitor) {
+		final CompletionSession session = CompletionSession.of(context);
 		return typeSignatures.stream().map(Signature::getTypeErasure).map(t -> {
 			try {
-				return context.getProject().findType(t, monitor);
+				return session.findType(context.getProject(), t, monitor);
 			} catch (JavaModelException e) {
 				Log.error(e);
 				return null;
@@ -127,23 +136,63 @@ public abstract class AbstractSmartProposalComputer implements IJavaCompletionPr
 		return false;
 	}
 
+	/**
+	 * Returns the time budget shared by all smart computers of the current
+	 * content assist round. Content assist creates a new invocation context for
+	 * every round, including the rounds of the next category and repeated
+	 * invocations at the same offset, so each round starts its own deadline. When
+	 * async completion is active the budget is a streaming one, and refresh
+	 * invocations of a stream don't wait at all.
+	 */
+	final CompletionBudget getBudget(JavaContentAssistInvocationContext context) {
+		try {
+			return BUDGETS.get(context, () -> {
+				if (isAsyncCompletionActive(context)) {
+					return CompletionBudget.streaming(
+							Duration.ofMillis(ProposalStream.isRefresh(context) ? 0 : FIRST_BATCH_TIMEOUT));
+				}
+				return CompletionBudget.start(Duration.ofMillis(TIMEOUT));
+			});
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
 	protected final List<IBinding> resolveBindings(Collection<? extends IJavaElement> elements,
 			JavaContentAssistInvocationContext context,
 			IProgressMonitor monitor) {
-		ASTParser parser = ASTParser.newParser(AST.JLS_Latest);
-		parser.setProject(context.getProject());
-		parser.setResolveBindings(true);
-		parser.setStatementsRecovery(true);
-		parser.setBindingsRecovery(true);
-		return Stream.of(parser.createBindings(elements.toArray(new IJavaElement[0]), monitor)).filter(Objects::nonNull)
-				.collect(Collectors.toList());
+		try (CompletionMetrics.Sample sample = time(CompletionMetrics.RESOLVE_BINDINGS)) {
+			ASTParser parser = ASTParser.newParser(AST.JLS_Latest);
+			parser.setProject(context.getProject());
+			parser.setResolveBindings(true);
+			parser.setStatementsRecovery(true);
+			parser.setBindingsRecovery(true);
+			return Stream.of(parser.createBindings(elements.toArray(new IJavaElement[0]), monitor))
+					.filter(Objects::nonNull).collect(Collectors.toList());
+		}
 	}
 
 	protected final ASTResult findInAST(JavaContentAssistInvocationContext context, IProgressMonitor monitor) {
+		try (CompletionMetrics.Sample sample = time(CompletionMetrics.FIND_IN_AST)) {
+			return CompletionSession.of(context).astResult(() -> parseAST(context, monitor));
+		}
+	}
+
+	/**
+	 * Starts measuring a phase of the current invocation of this computer.
+	 */
+	protected final CompletionMetrics.Sample time(String phase) {
+		return CorePlugin.getDefault().getCompletionMetrics().time(phase);
+	}
+
+	private ASTResult parseAST(JavaContentAssistInvocationContext context, IProgressMonitor monitor) {
 		ICompilationUnit compilationUnit = context.getCompilationUnit();
 		try {
-			CompilationUnit ast = CompletionASTVistor.createParsedUnitForCorrectedSource(compilationUnit.getElementName(),
-					compilationUnit.getSource(), context.getProject(), monitor);
+			CompilationUnit ast = sharedAST(context, monitor);
+			if (ast == null) {
+				ast = CompletionASTVistor.createParsedUnitForCorrectedSource(compilationUnit.getElementName(),
+						compilationUnit.getSource(), context.getProject(), context.getInvocationOffset(), monitor);
+			}
 			CompletionASTVistor visitor = new CompletionASTVistor(context);
 			ast.accept(visitor);
 			return new ASTResult(visitor.getExpectedTypes(), visitor.getExpectedTypeBindings(),
@@ -154,42 +203,55 @@ public abstract class AbstractSmartProposalComputer implements IJavaCompletionPr
 		}
 	}
 
+	/**
+	 * Returns the reconciler's AST if the working copy didn't change since it was
+	 * created, corrected the same way as a parsed one. Returns <code>null</code>
+	 * if there is no such AST.
+	 */
+	private CompilationUnit sharedAST(JavaContentAssistInvocationContext context, IProgressMonitor monitor)
+			throws JavaModelException {
+		final ICompilationUnit compilationUnit = context.getCompilationUnit();
+		if (!compilationUnit.isConsistent()) {
+			return null;
+		}
+
+		final CompilationUnit shared = SharedASTProviderCore.getAST(compilationUnit, SharedASTProviderCore.WAIT_NO,
+				monitor);
+		final char[] source = compilationUnit.getBuffer().getCharacters();
+		if (shared == null || source == null) {
+			return null;
+		}
+		return CompletionASTVistor.correctMissingSemiColon(shared, compilationUnit.getElementName(), source,
+				context.getProject(), context.getInvocationOffset(), monitor);
+	}
+
 	@Override
 	public void sessionStarted() {
+		CompletionSession.started();
 	}
 
 	@Override
 	public final List<ICompletionProposal> computeCompletionProposals(ContentAssistInvocationContext context,
 			IProgressMonitor monitor) {
 		if (context instanceof JavaContentAssistInvocationContext) {
-			JavaContentAssistInvocationContext jcontext = (JavaContentAssistInvocationContext) context;
-			initializeRequiredContext(jcontext);
-
-			if (!shouldCompute(context)) {
-				return Collections.emptyList();
+			final CompletionMetrics metrics = CorePlugin.getDefault().getCompletionMetrics();
+			try (CompletionMetrics.Sample total = metrics.begin(getClass().getSimpleName())) {
+				JavaContentAssistInvocationContext jcontext = (JavaContentAssistInvocationContext) context;
+				try (CompletionMetrics.Sample sample = metrics.time(CompletionMetrics.INITIALIZE_CONTEXT)) {
+					initializeRequiredContext(jcontext);
+				}
+
+				if (!shouldCompute(context)) {
+					return Collections.emptyList();
+				}
+				return computeSmartCompletionProposals(jcontext, monitor);
 			}
-			return computeSmartCompletionProposals(jcontext, monitor);
 		}
 		return Collections.emptyList();
 	}
 
 	private void initializeRequiredContext(final JavaContentAssistInvocationContext ctx) {
-		// This is to fix the issue where the core context is init without extended
-		// context,
-		// This happens due to the fact that getCoreContext will init a dummy one if the
-		// collector doesn't have a
-		// context due to async nature.
-
-		CompletionProposalCollector collector = new CompletionProposalCollector(ctx.getCompilationUnit(), true);
-		collector.setRequireExtendedContext(true);
-		collector.setInvocationContext(ctx);
-		ICompilationUnit cu = ctx.getCompilationUnit();
-		int offset = ctx.getInvocationOffset();
-		try {
-			cu.codeComplete(offset, collector, new NullProgressMonitor());
-		} catch (JavaModelException e) {
-			// try to continue
-		}
+		CompletionSession.of(ctx).initializeCoreContext(ctx);
 	}
 
 	@Override
@@ -205,6 +267,7 @@ public abstract class AbstractSmartProposalComputer implements IJavaCompletionPr
 
 	@Override
 	public void sessionEnded() {
+		CompletionSession.ended();
 	}
 
 	protected abstract List<ICompletionProposal> computeSmartCompletionProposals(
@@ -12,7 +12,6 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IJavaProject;
@@ -309,33 +308,58 @@ class CompletionASTVistor extends ASTVisitor {
 
 	public static CompilationUnit createParsedUnitForCorrectedSource(String unitName, String source,
 			IJavaProject project, IProgressMonitor monitor) {
-		return createParsedUnitForCorrectedSource(unitName, source, project, false, monitor);
+		return createParsedUnitForCorrectedSource(unitName, source, project, -1, monitor);
 	}
 
-	private static CompilationUnit createParsedUnitForCorrectedSource(String unitName, String source,
-			IJavaProject project,
-			boolean inRecovery, IProgressMonitor monitor) {
+	/**
+	 * Parses the given source and corrects it if the parser reports a missing
+	 * semicolon. If a focal position is given, only the body of the method which
+	 * encloses it is parsed and resolved, the other method bodies are skipped.
+	 */
+	public static CompilationUnit createParsedUnitForCorrectedSource(String unitName, String source,
+			IJavaProject project, int focalPosition, IProgressMonitor monitor) {
+		final char[] contents = source.toCharArray();
+		return correctMissingSemiColon(parse(unitName, contents, project, focalPosition, monitor), unitName, contents,
+				project, focalPosition, monitor);
+	}
+
+	/**
+	 * Returns the given AST, or if it reports a missing semicolon, the AST of the
+	 * source corrected with the semicolon.
+	 */
+	static CompilationUnit correctMissingSemiColon(CompilationUnit ast, String unitName, char[] source,
+			IJavaProject project, int focalPosition, IProgressMonitor monitor) {
+		// recovery parsing since the normal java parser doesn't recover chained
+		// statements
+		for (IProblem p : ast.getProblems()) {
+			if ((p.getID() & IProblem.MissingSemiColon) == IProblem.MissingSemiColon) {
+				final int position = p.getSourceStart() + 1;
+				final char[] corrected = new char[source.length + 1];
+				System.arraycopy(source, 0, corrected, 0, position);
+				corrected[position] = ';';
+				System.arraycopy(source, position, corrected, position + 1, source.length - position);
+				return parse(unitName, corrected, project, focalPosition, monitor);
+			}
+		}
+		return ast;
+	}
+
+	private static CompilationUnit parse(String unitName, char[] source, IJavaProject project, int focalPosition,
+			IProgressMonitor monitor) {
 		ASTParser parser = ASTParser.newParser(AST.JLS_Latest);
-		parser.setSource(source.toCharArray());
+		parser.setSource(source);
 		parser.setProject(project);
 		parser.setResolveBindings(true);
 		parser.setStatementsRecovery(true);
 		parser.setBindingsRecovery(true);
 		parser.setUnitName(unitName);
+		if (focalPosition >= 0) {
+			parser.setFocalPosition(focalPosition);
+		}
 		Map<String, String> options = project.getOptions(true);
 		options.remove(JavaCore.COMPILER_TASK_TAGS);
 		parser.setCompilerOptions(options);
 
-		CompilationUnit ast = (CompilationUnit) parser.createAST(monitor);
-
-		// recovery parsing since the normal java parser doesn't recover chained
-		// statements
-		return Stream.of(ast.getProblems())
-				.filter(p -> ((p.getID() & IProblem.MissingSemiColon) == IProblem.MissingSemiColon) && !inRecovery)
-				.map(p -> {
-					StringBuilder builder = new StringBuilder(source);
-					builder.insert(p.getSourceStart() + 1, ";");
-					return createParsedUnitForCorrectedSource(unitName, builder.toString(), project, true, monitor);
-		}).findFirst().orElse(ast);
+		return (CompilationUnit) parser.createAST(monitor);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package org.gap.eclipse.jdt.types;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics;
+
+/**
+ * The time budget of a content assist round: a wait deadline shared by all
+ * finders, without a share per finder. The deadline only ends the wait, a
+ * search which is still running keeps going in the background so its results
+ * are cached for the next invocation, and is counted as an overrun.
+ * <p>
+ * A streaming budget is used for async content assist. Its deadline ends the
+ * wait for the first batch of proposals, and the later results of its searches
+ * are delivered through a {@link ProposalStream}.
+ * </p>
+ */
+final class CompletionBudget {
+	private static final CompletionBudget UNLIMITED = new CompletionBudget(0, false, false);
+
+	private final long deadline;
+
+	private final boolean limited;
+
+	private final boolean streaming;
+
+	private CompletionBudget(long deadline, boolean limited, boolean streaming) {
+		this.deadline = deadline;
+		this.limited = limited;
+		this.streaming = streaming;
+	}
+
+	/**
+	 * Starts a budget which ends after the given duration, or a budget without a
+	 * deadline if the duration is <code>null</code>.
+	 */
+	static CompletionBudget start(Duration duration) {
+		if (duration == null) {
+			return UNLIMITED;
+		}
+		return new CompletionBudget(System.nanoTime() + duration.toNanos(), true, false);
+	}
+
+	/**
+	 * Starts a streaming budget which waits for the first batch of proposals for
+	 * the given duration without canceling the searches.
+	 */
+	static CompletionBudget streaming(Duration firstBatch) {
+		return new CompletionBudget(System.nanoTime() + firstBatch.toNanos(), false, true);
+	}
+
+	boolean isLimited() {
+		return limited;
+	}
+
+	boolean isStreaming() {
+		return streaming;
+	}
+
+	boolean isExpired() {
+		return limited && deadline - System.nanoTime() <= 0;
+	}
+
+	/**
+	 * Wraps the work of the given finder so it is counted as an overrun in the
+	 * {@link CompletionMetrics} if it completes after the deadline. The work is
+	 * not canceled at the deadline.
+	 */
+	<S> BiConsumer<S, IProgressMonitor> track(String finder, BiConsumer<S, IProgressMonitor> work) {
+		return (sink, monitor) -> {
+			try {
+				work.accept(sink, monitor);
+			} finally {
+				if (isExpired()) {
+					CorePlugin.getDefault().getCompletionMetrics()
+							.increment(finder + "/" + CompletionMetrics.OVERRUN);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Waits for the given task until the deadline. The task keeps running
+	 * afterwards, a streaming budget delivers its later results.
+	 *
+	 * @return <code>true</code> if the task completed before the deadline,
+	 *         <code>false</code> if it is still running or was canceled.
+	 */
+	boolean await(Future<?> task) throws InterruptedException, ExecutionException {
+		try {
+			if (!limited && !streaming) {
+				task.get();
+			} else {
+				task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			}
+			return true;
+		} catch (TimeoutException e) {
+			CorePlugin.getDefault().getCompletionMetrics().increment(CompletionMetrics.TIMEOUT);
+			return false;
+		} catch (CancellationException e) {
+			// superseded, or dropped from a full search queue.
+			return false;
+		}
+	}
+}
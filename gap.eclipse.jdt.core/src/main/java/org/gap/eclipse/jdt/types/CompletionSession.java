@@ -0,0 +1,191 @@
+package org.gap.eclipse.jdt.types;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ui.text.java.CompletionProposalCollector;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.gap.eclipse.jdt.CorePlugin;
+
+/**
+ * Holds the state that is shared by all smart proposal computers within a
+ * single content assist session. The core completion context and the parsed
+ * AST are computed by the first computer which needs them and reused by the
+ * others as long as the document, its modification stamp and the invocation
+ * offset stay the same. Types looked up by name are also kept for the session,
+ * as the computers resolve the same expected and return types.
+ */
+final class CompletionSession {
+	private static final boolean TRACE = Boolean.getBoolean("org.gap.eclipse.jdt.types.traceCompletionSession");
+
+	private static final Object LOCK = new Object();
+
+	private static final AtomicLong avoidedParses = new AtomicLong();
+
+	private static final AtomicLong avoidedCodeCompletes = new AtomicLong();
+
+	private static int activeComputers;
+
+	private static CompletionSession current;
+
+	private final IDocument document;
+
+	private final long modificationStamp;
+
+	private final int offset;
+
+	private CompletionProposalCollector collector;
+
+	private ASTResult astResult;
+
+	private final Map<String, Optional<IType>> types = new ConcurrentHashMap<>();
+
+	private CompletionSession(IDocument document, long modificationStamp, int offset) {
+		this.document = document;
+		this.modificationStamp = modificationStamp;
+		this.offset = offset;
+	}
+
+	/**
+	 * Marks the start of a content assist session for one computer. Sessions are
+	 * reference counted since every computer receives its own
+	 * <code>sessionStarted</code> call.
+	 */
+	static void started() {
+		synchronized (LOCK) {
+			if (activeComputers++ == 0) {
+				ProposalStream.sessionStarted();
+			}
+		}
+	}
+
+	/**
+	 * Marks the end of a content assist session for one computer. The shared state
+	 * is dropped when the last computer ends its session.
+	 */
+	static void ended() {
+		synchronized (LOCK) {
+			if (activeComputers > 0) {
+				activeComputers--;
+			}
+			if (activeComputers == 0) {
+				current = null;
+				ProposalStream.sessionEnded();
+				trace();
+			}
+		}
+	}
+
+	/**
+	 * Returns the session for the given invocation context. If no session is
+	 * active, or the document doesn't support modification stamps, a session
+	 * which is not shared with any other computer is returned.
+	 */
+	static CompletionSession of(JavaContentAssistInvocationContext context) {
+		final IDocument document = context.getDocument();
+		final int offset = context.getInvocationOffset();
+		if (!(document instanceof IDocumentExtension4)) {
+			return new CompletionSession(document, IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP, offset);
+		}
+
+		final long stamp = ((IDocumentExtension4) document).getModificationStamp();
+		synchronized (LOCK) {
+			if (activeComputers == 0) {
+				return new CompletionSession(document, stamp, offset);
+			}
+			if (current == null || !current.matches(document, stamp, offset)) {
+				current = new CompletionSession(document, stamp, offset);
+			}
+			return current;
+		}
+	}
+
+	static long getAvoidedParses() {
+		return avoidedParses.get();
+	}
+
+	static long getAvoidedCodeCompletes() {
+		return avoidedCodeCompletes.get();
+	}
+
+	private boolean matches(IDocument document, long stamp, int offset) {
+		return this.document == document && this.modificationStamp == stamp && this.offset == offset;
+	}
+
+	/**
+	 * Makes sure the core context of the given invocation context is created with
+	 * the extended context information. The code complete pass is only performed
+	 * once per session.
+	 */
+	synchronized void initializeCoreContext(JavaContentAssistInvocationContext context) {
+		CorePlugin.getDefault().getCompletionMetrics().cacheAccess("coreContext", collector != null);
+		if (collector != null) {
+			collector.setInvocationContext(context);
+			avoidedCodeCompletes.incrementAndGet();
+			return;
+		}
+
+		// This is to fix the issue where the core context is init without extended
+		// context, This happens due to the fact that getCoreContext will init a dummy
+		// one if the collector doesn't have a context due to async nature.
+		final ICompilationUnit cu = context.getCompilationUnit();
+		final CompletionProposalCollector newCollector = new CompletionProposalCollector(cu, true);
+		newCollector.setRequireExtendedContext(true);
+		newCollector.setInvocationContext(context);
+		try {
+			cu.codeComplete(context.getInvocationOffset(), newCollector, new NullProgressMonitor());
+		} catch (JavaModelException e) {
+			// try to continue
+		}
+		collector = newCollector;
+	}
+
+	/**
+	 * Returns the AST result of this session, parsing the compilation unit using
+	 * the given parser only if no other computer did it already.
+	 */
+	synchronized ASTResult astResult(Supplier<ASTResult> parser) {
+		CorePlugin.getDefault().getCompletionMetrics().cacheAccess("astResult", astResult != null);
+		if (astResult != null) {
+			avoidedParses.incrementAndGet();
+			return astResult;
+		}
+		astResult = parser.get();
+		return astResult;
+	}
+
+	/**
+	 * Returns the type with the given qualified name in the given project, or
+	 * <code>null</code> if there is none. Each name is only looked up once per
+	 * session.
+	 */
+	IType findType(IJavaProject project, String name, IProgressMonitor monitor) throws JavaModelException {
+		final Optional<IType> cached = types.get(name);
+		CorePlugin.getDefault().getCompletionMetrics().cacheAccess("sessionTypes", cached != null);
+		if (cached != null) {
+			return cached.orElse(null);
+		}
+
+		final IType type = project.findType(name, monitor);
+		types.put(name, Optional.ofNullable(type));
+		return type;
+	}
+
+	private static void trace() {
+		if (TRACE) {
+			CorePlugin.getDefault().logInfo(String.format("Completion session avoided %d parses and %d code complete passes",
+					avoidedParses.get(), avoidedCodeCompletes.get()));
+		}
+	}
+}
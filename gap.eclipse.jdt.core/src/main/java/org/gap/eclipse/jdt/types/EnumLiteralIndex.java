@@ -0,0 +1,304 @@
+package org.gap.eclipse.jdt.types;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.Messages;
+
+/**
+ * Index from interfaces to the enums which implement them, and from enums to
+ * their literals. The index of a project is built in the background the first
+ * time it is requested, and source changes are applied from Java element
+ * deltas. The index of a project is built again when its classpath changes or
+ * the content of one of its archives changes.
+ */
+public final class EnumLiteralIndex implements IElementChangedListener {
+	private final Map<String, ProjectEnums> projects = new ConcurrentHashMap<>();
+
+	private final Queue<IJavaElement> changes = new ConcurrentLinkedQueue<>();
+
+	private final Job job;
+
+	public EnumLiteralIndex() {
+		job = new Job(Messages.EnumLiteralIndex_JobName) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return applyChanges(monitor);
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the enums which implement the given interface, or the type itself if
+	 * it is an enum. Returns <code>null</code> if the index of the project is not
+	 * ready yet, in which case it is scheduled to be built.
+	 */
+	public Set<IType> enumsOf(IJavaProject project, IType type) throws JavaModelException {
+		if (type.isEnum()) {
+			return Collections.singleton(type);
+		}
+
+		final ProjectEnums enums = projects.get(project.getHandleIdentifier());
+		if (enums == null || !enums.ready) {
+			schedule(project);
+			return null;
+		}
+		return enums.implementors.getOrDefault(type.getFullyQualifiedName('.'), Collections.emptySet()).stream()
+				.map(enums.literals::get).filter(e -> e != null).map(e -> e.type).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Returns the literals of the given enum.
+	 */
+	public List<IField> literalsOf(IJavaProject project, IType enumType) throws JavaModelException {
+		final ProjectEnums enums = projects.get(project.getHandleIdentifier());
+		if (enums != null && enums.ready) {
+			final EnumEntry entry = enums.literals.get(enumType.getHandleIdentifier());
+			if (entry != null) {
+				return entry.literals;
+			}
+		}
+		return literals(enumType);
+	}
+
+	static List<IField> literals(IType enumType) throws JavaModelException {
+		return Arrays.stream(enumType.getFields()).filter(f -> {
+			try {
+				return Flags.isPublic(f.getFlags()) && !f.getElementName().equals("$VALUES");
+			} catch (JavaModelException e) {
+				CorePlugin.getDefault().logError(e.getMessage(), e);
+				return false;
+			}
+		}).collect(Collectors.toList());
+	}
+
+	private void schedule(IJavaElement element) {
+		changes.add(element);
+		job.schedule(500);
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		collect(event.getDelta());
+	}
+
+	private void collect(IJavaElementDelta delta) {
+		final IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_PROJECT:
+			final ProjectEnums enums = projects.get(element.getHandleIdentifier());
+			if (enums == null) {
+				return;
+			}
+			if (delta.getKind() == IJavaElementDelta.REMOVED
+					|| (delta.getFlags() & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+				projects.remove(element.getHandleIdentifier());
+				return;
+			}
+			if ((delta.getFlags() & IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED) != 0) {
+				schedule(element);
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if ((delta.getFlags() & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+					| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+				final ProjectEnums rootEnums = projects.get(element.getJavaProject().getHandleIdentifier());
+				if (rootEnums != null) {
+					// the classpath of the project may be unchanged, so it is built again anyway.
+					rootEnums.rootsChanged = true;
+					schedule(element.getJavaProject());
+				}
+				return;
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+			if (!((ICompilationUnit) element).isWorkingCopy() && (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & IJavaElementDelta.F_CONTENT) != 0)) {
+				schedule(element);
+			}
+			return;
+		default:
+			break;
+		}
+
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			collect(child);
+		}
+	}
+
+	private IStatus applyChanges(IProgressMonitor monitor) {
+		IJavaElement element;
+		while ((element = changes.poll()) != null) {
+			if (monitor.isCanceled()) {
+				changes.clear();
+				return Status.CANCEL_STATUS;
+			}
+
+			try {
+				if (element instanceof IJavaProject) {
+					build((IJavaProject) element, monitor);
+				} else {
+					update((ICompilationUnit) element);
+				}
+			} catch (OperationCanceledException e) {
+				changes.clear();
+				return Status.CANCEL_STATUS;
+			} catch (CoreException e) {
+				CorePlugin.getDefault().logError(e.getMessage(), e);
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	private void build(IJavaProject project, IProgressMonitor monitor) throws CoreException {
+		final ProjectEnums current = projects.get(project.getHandleIdentifier());
+		if (current != null && current.ready && !current.stale(project)) {
+			return;
+		}
+
+		final ProjectEnums enums = new ProjectEnums(project);
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PATTERN_MATCH, "*".toCharArray(),
+				SearchPattern.R_PATTERN_MATCH, IJavaSearchConstants.ENUM,
+				SearchEngine.createJavaSearchScope(new IJavaElement[] { project }), new TypeNameMatchRequestor() {
+					@Override
+					public void acceptTypeNameMatch(TypeNameMatch match) {
+						try {
+							enums.add(match.getType());
+						} catch (JavaModelException e) {
+							// skip types which cannot be read.
+						}
+					}
+				}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+		enums.ready = true;
+		projects.put(project.getHandleIdentifier(), enums);
+	}
+
+	private void update(ICompilationUnit unit) throws JavaModelException {
+		final String prefix = unit.getHandleIdentifier();
+		for (ProjectEnums enums : projects.values()) {
+			if (!enums.ready) {
+				continue;
+			}
+
+			enums.removeAll(prefix);
+			if (unit.exists() && enums.project.isOnClasspath(unit)) {
+				for (IType type : unit.getAllTypes()) {
+					if (type.isEnum()) {
+						enums.add(type);
+					}
+				}
+			}
+		}
+	}
+
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		job.cancel();
+		changes.clear();
+		projects.clear();
+	}
+
+	private static final class ProjectEnums {
+		private final IJavaProject project;
+
+		private final String classpathHash;
+
+		private final Map<String, Set<String>> implementors = new ConcurrentHashMap<>();
+
+		private final Map<String, EnumEntry> literals = new ConcurrentHashMap<>();
+
+		private volatile boolean ready;
+
+		// set when archives or roots of the project changed.
+		private volatile boolean rootsChanged;
+
+		private ProjectEnums(IJavaProject project) {
+			this.project = project;
+			this.classpathHash = classpathHash(project);
+		}
+
+		private static String classpathHash(IJavaProject project) {
+			try {
+				return String.valueOf(Arrays.hashCode(project.getResolvedClasspath(true)));
+			} catch (JavaModelException e) {
+				return "";
+			}
+		}
+
+		private boolean stale(IJavaProject project) {
+			return rootsChanged || !classpathHash.equals(classpathHash(project));
+		}
+
+		private void add(IType type) throws JavaModelException {
+			final String handle = type.getHandleIdentifier();
+			literals.put(handle, new EnumEntry(type, literals(type)));
+			for (String name : type.getSuperInterfaceTypeNames()) {
+				final String fqn = resolve(type, name);
+				if (fqn != null) {
+					implementors.computeIfAbsent(fqn, k -> ConcurrentHashMap.newKeySet()).add(handle);
+				}
+			}
+		}
+
+		private String resolve(IType type, String name) throws JavaModelException {
+			if (type.isBinary()) {
+				return name.replace('$', '.');
+			}
+
+			final String[][] resolved = type.resolveType(name);
+			if (resolved == null || resolved.length == 0) {
+				return null;
+			}
+			return resolved[0][0].isEmpty() ? resolved[0][1] : resolved[0][0] + "." + resolved[0][1];
+		}
+
+		private void removeAll(String unitHandle) {
+			literals.keySet().removeIf(h -> h.startsWith(unitHandle));
+			implementors.values().forEach(v -> v.removeIf(h -> h.startsWith(unitHandle)));
+		}
+	}
+
+	private static final class EnumEntry {
+		private final IType type;
+
+		private final List<IField> literals;
+
+		private EnumEntry(IType type, List<IField> literals) {
+			this.type = type;
+			this.literals = literals;
+		}
+	}
+}
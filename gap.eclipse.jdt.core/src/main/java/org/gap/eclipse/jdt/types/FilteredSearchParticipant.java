@@ -8,6 +8,7 @@ import java.util.function.Predicate;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchDocument;
 import org.eclipse.jdt.core.search.SearchParticipant;
@@ -17,6 +18,12 @@ import org.eclipse.jdt.core.search.SearchRequestor;
 import com.google.common.base.Predicates;
 
 public class FilteredSearchParticipant extends SearchParticipant {
+	// packages whose documents are searched first, they hold the most used static members.
+	private static final String[] PRIORITY_PACKAGES = { "java.util", "com.google.common.collect" };
+
+	// names of the JRE module and archives which hold the priority packages.
+	private static final String[] PRIORITY_ROOTS = { "java.base", "rt.jar", "guava" };
+
 	private SearchParticipant participant;
 	
 	public FilteredSearchParticipant(SearchParticipant participant) {
@@ -40,8 +47,7 @@ public class FilteredSearchParticipant extends SearchParticipant {
 		List<SearchDocument> prioDocuments = new LinkedList<SearchDocument>();
 		Arrays.stream(documents).filter(searchInDocuments())
 			.forEach(d -> {
-				if(d.getPath().contains("|java/util") || d.getPath().contains("|java/util/stream") ||
-						d.getPath().contains("|com/google/common/collect")) {
+				if(isPriorityDocument(d.getPath())) {
 					prioDocuments.add(0, d);
 				} else {
 					prioDocuments.add(d);
@@ -50,6 +56,46 @@ public class FilteredSearchParticipant extends SearchParticipant {
 		participant.locateMatches(prioDocuments.toArray(new SearchDocument[0]), pattern, scope, requestor, monitor);
 	}
 
+	private static boolean isPriorityDocument(String path) {
+		for (String name : PRIORITY_PACKAGES) {
+			if (path.contains("|" + name.replace('.', '/'))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the package with the given name is one of the packages
+	 * which are searched first, or a subpackage of them.
+	 */
+	static boolean isPriorityPackage(String packageName) {
+		for (String name : PRIORITY_PACKAGES) {
+			if (packageName.startsWith(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the given root is one of the archives, or the JRE module,
+	 * which hold the packages searched first. Only the name of the root is
+	 * checked, so the archive is not opened.
+	 */
+	static boolean isPriorityRoot(IPackageFragmentRoot root) {
+		if (!root.isArchive()) {
+			return false;
+		}
+		final String rootName = root.getElementName();
+		for (String name : PRIORITY_ROOTS) {
+			if (rootName.startsWith(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private Predicate<SearchDocument> searchInDocuments() {
 		return Predicates.<SearchDocument>not((SearchDocument d) -> {
 			return d.getPath().contains("|sun") ||
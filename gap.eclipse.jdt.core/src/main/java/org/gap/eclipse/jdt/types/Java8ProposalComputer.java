@@ -29,6 +29,7 @@ import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.gap.eclipse.jdt.common.DistinctPredicate;
 import org.gap.eclipse.jdt.common.Log;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics;
 import org.osgi.framework.Version;
 
 import com.google.common.base.Preconditions;
@@ -103,20 +104,26 @@ public class Java8ProposalComputer extends AbstractSmartProposalComputer impleme
 					.map(c -> c.getVisibleElements(null)).orElse(new IJavaElement[0])));
 			elements.addAll(resolveInbuiltSuggestions(context));
 
-			@NonNull
-			Stream<Entry<IJavaElement, IMethod>> methodReferences = !isPreceedMethodReferenceOpt(context)
-					? methodReferenceFinder.find(binding, elements, context)
-					: Stream.empty();
+			final List<Entry<IJavaElement, IMethod>> methodReferences;
+			try (CompletionMetrics.Sample sample = time(CompletionMetrics.SEARCH)) {
+				methodReferences = !isPreceedMethodReferenceOpt(context)
+						? methodReferenceFinder.find(binding, elements, context).collect(Collectors.toList())
+						: Collections.emptyList();
+			}
 
-			return Stream.concat(methodReferences.map(e -> {
-				try {
-					return Proposals.toMethodReferenceProposal(e.getKey(), e.getValue(), context, assistOptions);
-				} catch (JavaModelException ex) {
-					Log.error(ex);
-					return null;
-				}
-			}).filter(Objects::nonNull), 
-					enableLambda ? Proposals.toLambdaProposal((IMethod) binding.getJavaElement(), context): Stream.empty());
+			try (CompletionMetrics.Sample sample = time(CompletionMetrics.PROPOSALS)) {
+				return Stream.concat(methodReferences.stream().map(e -> {
+					try {
+						return Proposals.toMethodReferenceProposal(e.getKey(), e.getValue(), context, assistOptions);
+					} catch (JavaModelException ex) {
+						Log.error(ex);
+						return null;
+					}
+				}).filter(Objects::nonNull),
+						enableLambda ? Proposals.toLambdaProposal((IMethod) binding.getJavaElement(), context)
+								: Stream.empty())
+						.collect(Collectors.toList()).stream();
+			}
 		} catch (JavaModelException e) {
 			logError(e);
 			return Stream.empty();
@@ -8,6 +8,10 @@ public final class LastInvocation {
 
 	public boolean canPerformSecondarySearch(JavaContentAssistInvocationContext context) {
 		int invocationOffset = context.getInvocationOffset();
+		if (ProposalStream.isRefresh(context)) {
+			// refreshing the proposals of a running search is not a repeated invocation.
+			return lastOffset == invocationOffset && hitcount >= 2;
+		}
 		if (lastOffset == invocationOffset) {
 			hitcount++;
 			return hitcount >= 2;
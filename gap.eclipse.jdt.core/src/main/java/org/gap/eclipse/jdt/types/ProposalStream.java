@@ -0,0 +1,283 @@
+package org.gap.eclipse.jdt.types;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.commands.NotEnabledException;
+import org.eclipse.core.commands.NotHandledException;
+import org.eclipse.core.commands.ParameterizedCommand;
+import org.eclipse.core.commands.common.NotDefinedException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.commands.ICommandService;
+import org.eclipse.ui.handlers.IHandlerService;
+import org.eclipse.ui.progress.UIJob;
+import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.common.SearchPool;
+
+/**
+ * Delivers the results of searches which are still running when async content
+ * assist returns its first batch of proposals.
+ * <p>
+ * The searches keep collecting into their result sinks. Every
+ * {@value #BATCH_INTERVAL} milliseconds the proposals of a stream whose
+ * searches collected something new are refreshed, until all of its searches
+ * are done, as long as the document and the invocation offset did not change.
+ * A refresh runs content assist for the proposal category of the stream only,
+ * so the other computers are not run again. Refresh invocations don't wait for
+ * the searches, keep showing the placeholder while they run, and are marked so
+ * they are not counted as repeated invocations by {@link LastInvocation}.
+ * </p>
+ * <p>
+ * Each viewer follows its own stream.
+ * </p>
+ */
+final class ProposalStream {
+	private static final long BATCH_INTERVAL = 50;
+
+	private static final String SPECIFIC_CONTENT_ASSIST = "org.eclipse.jdt.ui.specific_content_assist.command";
+
+	private static final String CATEGORY_PARAMETER = "org.eclipse.jdt.ui.specific_content_assist.category_id";
+
+	private static final RefreshJob JOB = new RefreshJob();
+
+	// guarded by ProposalStream.class
+	private static final Map<ITextViewer, ViewerState> viewers = new WeakHashMap<>();
+
+	private ProposalStream() {
+	}
+
+	/**
+	 * Follows the given search which didn't complete within the first batch of
+	 * the given proposal category, and returns the placeholder to show until it
+	 * completes, or <code>null</code> if it completed.
+	 */
+	static ICompletionProposal follow(JavaContentAssistInvocationContext context,
+			SearchPool.Task<? extends Collection<?>> task, String categoryId) {
+		final Key key = Key.of(context);
+		synchronized (ProposalStream.class) {
+			final ViewerState state = viewers.computeIfAbsent(context.getViewer(), v -> new ViewerState());
+			if (state.stream == null || !state.stream.key.equals(key)) {
+				state.stream = new Stream(key, categoryId);
+			}
+			state.stream.add(task, !state.isRefresh(key));
+			if (task.getFuture().isDone()) {
+				return null;
+			}
+			JOB.schedule(BATCH_INTERVAL);
+		}
+		return new ComputingProposal(context.getInvocationOffset(), "Searching for more proposals ⌛");
+	}
+
+	/**
+	 * Returns <code>true</code> if the given invocation was triggered to refresh
+	 * the proposals of a stream.
+	 */
+	static synchronized boolean isRefresh(JavaContentAssistInvocationContext context) {
+		final ViewerState state = viewers.get(context.getViewer());
+		return state != null && state.isRefresh(Key.of(context));
+	}
+
+	/**
+	 * Marks the start of a content assist session. A refresh which was triggered
+	 * is now being computed by the session.
+	 */
+	static synchronized void sessionStarted() {
+		for (ViewerState state : viewers.values()) {
+			if (state.pendingRefresh != null) {
+				state.sessionRefresh = state.pendingRefresh;
+				state.pendingRefresh = null;
+			}
+		}
+	}
+
+	static synchronized void sessionEnded() {
+		for (ViewerState state : viewers.values()) {
+			state.sessionRefresh = null;
+		}
+	}
+
+	/**
+	 * Returns the categories of the streams whose proposals should be refreshed
+	 * now. Streams which are done are delivered one last time and no longer
+	 * followed, and streams which became stale are dropped.
+	 */
+	private static synchronized List<String> due() {
+		final List<String> due = new ArrayList<>(1);
+		for (Map.Entry<ITextViewer, ViewerState> entry : viewers.entrySet()) {
+			final ViewerState state = entry.getValue();
+			final Stream stream = state.stream;
+			if (stream == null) {
+				continue;
+			}
+			if (!stream.key.isCurrent(entry.getKey())) {
+				state.stream = null;
+				continue;
+			}
+
+			final boolean done = stream.isDone();
+			if (!entry.getKey().getTextWidget().isFocusControl()) {
+				// the command runs on the focused editor, wait until the viewer has the focus again.
+				if (done) {
+					state.stream = null;
+				}
+				continue;
+			}
+
+			final int size = stream.size();
+			if (done) {
+				state.stream = null;
+			}
+			if (done || size != stream.delivered) {
+				stream.delivered = size;
+				state.pendingRefresh = stream.key;
+				due.add(stream.categoryId);
+			}
+		}
+		return due;
+	}
+
+	private static synchronized boolean isFollowing() {
+		return viewers.values().stream().anyMatch(s -> s.stream != null);
+	}
+
+	/**
+	 * Runs content assist for the given proposal category only.
+	 */
+	private static void refresh(String categoryId) {
+		final IWorkbench workbench = PlatformUI.getWorkbench();
+		final ICommandService commands = workbench.getService(ICommandService.class);
+		final IHandlerService handlers = workbench.getService(IHandlerService.class);
+		try {
+			final ParameterizedCommand command = ParameterizedCommand.generateCommand(
+					commands.getCommand(SPECIFIC_CONTENT_ASSIST), Collections.singletonMap(CATEGORY_PARAMETER, categoryId));
+			if (command != null) {
+				handlers.executeCommand(command, null);
+			}
+		} catch (ExecutionException | NotDefinedException | NotEnabledException | NotHandledException e) {
+			CorePlugin.getDefault().logError(e.getMessage(), e);
+		}
+	}
+
+	private static final class RefreshJob extends UIJob {
+		private RefreshJob() {
+			super("Refresh Smart Proposals");
+			setSystem(true);
+		}
+
+		@Override
+		public IStatus runInUIThread(IProgressMonitor monitor) {
+			due().forEach(ProposalStream::refresh);
+			if (isFollowing()) {
+				schedule(BATCH_INTERVAL);
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	private static final class ViewerState {
+		private Stream stream;
+
+		// the refresh which was triggered, until its session starts.
+		private Key pendingRefresh;
+
+		// the refresh which is computed by the current session.
+		private Key sessionRefresh;
+
+		private boolean isRefresh(Key key) {
+			return key.equals(sessionRefresh) || key.equals(pendingRefresh);
+		}
+	}
+
+	private static final class Stream {
+		private final Key key;
+
+		private final String categoryId;
+
+		private final List<SearchPool.Task<? extends Collection<?>>> tasks = new CopyOnWriteArrayList<>();
+
+		// the number of results shown by the last invocation.
+		private int delivered;
+
+		private Stream(Key key, String categoryId) {
+			this.key = key;
+			this.categoryId = categoryId;
+		}
+
+		private void add(SearchPool.Task<? extends Collection<?>> task, boolean firstBatch) {
+			if (!tasks.contains(task)) {
+				tasks.add(task);
+				if (firstBatch) {
+					// the first batch was already delivered by the invocation itself.
+					delivered = size();
+				}
+			}
+		}
+
+		private int size() {
+			return tasks.stream().mapToInt(t -> t.getSink().size()).sum();
+		}
+
+		private boolean isDone() {
+			return tasks.stream().allMatch(t -> t.getFuture().isDone());
+		}
+	}
+
+	private static final class Key {
+		private final IDocument document;
+
+		private final long modificationStamp;
+
+		private final int offset;
+
+		private Key(IDocument document, long modificationStamp, int offset) {
+			this.document = document;
+			this.modificationStamp = modificationStamp;
+			this.offset = offset;
+		}
+
+		private static Key of(JavaContentAssistInvocationContext context) {
+			return new Key(context.getDocument(), stamp(context.getDocument()), context.getInvocationOffset());
+		}
+
+		private static long stamp(IDocument document) {
+			return document instanceof IDocumentExtension4
+					? ((IDocumentExtension4) document).getModificationStamp()
+					: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		}
+
+		private boolean isCurrent(ITextViewer viewer) {
+			return stamp(document) == modificationStamp && viewer.getTextWidget() != null
+					&& !viewer.getTextWidget().isDisposed() && viewer.getSelectedRange().x == offset;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(document) * 31 + Long.hashCode(modificationStamp) * 17 + offset;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return document == other.document && modificationStamp == other.modificationStamp
+					&& offset == other.offset;
+		}
+	}
+}
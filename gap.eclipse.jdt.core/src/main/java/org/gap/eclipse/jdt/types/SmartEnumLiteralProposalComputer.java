@@ -6,18 +6,13 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.CompletionProposal;
-import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IType;
@@ -34,13 +29,13 @@ import org.eclipse.jdt.ui.text.java.IJavaCompletionProposalComputer;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.gap.eclipse.jdt.CorePlugin;
-
-import com.google.common.base.Predicates;
+import org.gap.eclipse.jdt.common.SearchPool;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics;
 
 public class SmartEnumLiteralProposalComputer extends AbstractSmartProposalComputer
 		implements IJavaCompletionProposalComputer {
 
-	public static final String CATEGORY_ID = "gap.eclipse.jdt.proposalCategory.smartEnum";
+	public static final String CATEGORY_ID = "gap.eclipse.jdt.core.smartEnum";
 
 	private final LastInvocation lastInvocation = new LastInvocation();
 
@@ -56,92 +51,108 @@ public class SmartEnumLiteralProposalComputer extends AbstractSmartProposalCompu
 	private List<ICompletionProposal> searchFromAST(JavaContentAssistInvocationContext context,
 			IProgressMonitor monitor) {
 		ASTResult result = findInAST(context, monitor);
-		return result.getExpectedTypes().stream().parallel()
-			.filter(t -> !isUnsupportedType(t.getFullyQualifiedName()))
-			.flatMap(t -> {
-					try {
-						if(t.isInterface() && lastInvocation.canPerformSecondarySearch(context)) {
-							ExecutorService executor = Executors.newSingleThreadExecutor();
-							final Set<IType> types = Collections.synchronizedSet(new HashSet<>());
+		final CompletionBudget budget = getBudget(context);
+		final EnumLiteralIndex index = CorePlugin.getDefault().getEnumLiteralIndex();
+		final List<ICompletionProposal> placeholders = Collections.synchronizedList(new ArrayList<>(1));
+		final List<IField> literals;
+		try (CompletionMetrics.Sample sample = time(CompletionMetrics.SEARCH)) {
+			literals = result.getExpectedTypes().stream().parallel()
+				.filter(t -> !isUnsupportedType(t.getFullyQualifiedName()))
+				.flatMap(t -> {
+						try {
+							if(t.isInterface() && lastInvocation.canPerformSecondarySearch(context)) {
+								final Set<IType> indexed = index.enumsOf(context.getProject(), t);
+								CorePlugin.getDefault().getCompletionMetrics().cacheAccess("enumLiteralIndex", indexed != null);
+								if (indexed != null) {
+									return indexed.stream();
+								}
 							
-							Future<?> future = executor.submit(() -> {
-								SearchPattern pattern = SearchPattern.createPattern(t, IJavaSearchConstants.IMPLEMENTORS);
-								SearchEngine engine = new SearchEngine();
-								try {
-									engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant()}, 
-											SearchEngine.createJavaSearchScope(new IJavaElement[] { context.getProject() }), new SearchRequestor() {
+								// each expected type is searched in parallel, so they must not supersede each other.
+								final SearchPool.Task<Set<IType>> task = CorePlugin.getDefault().getSearchPool().submit(
+										SmartEnumLiteralProposalComputer.class.getName() + "#" + t.getHandleIdentifier(),
+										context.getCompilationUnit(), context.getInvocationOffset(), new Object[0],
+										Collections.synchronizedSet(new HashSet<>()), monitor,
+										budget.track(SmartEnumLiteralProposalComputer.class.getSimpleName(), (types, taskMonitor) -> {
+									SearchPattern pattern = SearchPattern.createPattern(t, IJavaSearchConstants.IMPLEMENTORS);
+									SearchEngine engine = new SearchEngine();
+									try {
+										engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant()}, 
+												SearchEngine.createJavaSearchScope(new IJavaElement[] { context.getProject() }), new SearchRequestor() {
 
-												@Override
-												public void acceptSearchMatch(SearchMatch match) throws CoreException {
-													if(match.getAccuracy() == SearchMatch.A_ACCURATE &&
-															match.getElement() instanceof IType) {
-														types.add((IType) match.getElement());
+													@Override
+													public void acceptSearchMatch(SearchMatch match) throws CoreException {
+														if(match.getAccuracy() == SearchMatch.A_ACCURATE &&
+																match.getElement() instanceof IType) {
+															types.add((IType) match.getElement());
+														}
 													}
-												}
-									}, monitor);
-								} catch (CoreException e) {
-									CorePlugin.getDefault().logError(e.getMessage(), e);
-								}
-							});
+										}, taskMonitor);
+									} catch (OperationCanceledException e) {
+										// canceled, keep the implementors found so far.
+									} catch (CoreException e) {
+										CorePlugin.getDefault().logError(e.getMessage(), e);
+									}
+								}));
 							
-							try {
-								if (isAsyncCompletionActive(context)) {
-									future.get();
-								} else {
-									future.get(TIMEOUT, TimeUnit.SECONDS);
+								try {
+									if (!budget.await(task.getFuture())) {
+										if (budget.isStreaming()) {
+											final ICompletionProposal computing = ProposalStream.follow(context, task, CATEGORY_ID);
+											if (computing != null) {
+												placeholders.add(computing);
+											}
+										} else {
+											lastInvocation.reset(); // we don't want a expanded search in next try.
+										}
+									}
+								} catch (InterruptedException e) {
+									CorePlugin.getDefault().logError(e.getMessage(), e);
+									Thread.currentThread().interrupt();
+								} catch (Exception e) {
+									CorePlugin.getDefault().logError(e.getMessage(), e);
 								}
-							} catch (TimeoutException e) {
-								lastInvocation.reset(); // we don't want a expanded search in next try.
-							} catch (InterruptedException e) {
-								CorePlugin.getDefault().logError(e.getMessage(), e);
-								Thread.currentThread().interrupt();
-							} catch (Exception e) {
-								CorePlugin.getDefault().logError(e.getMessage(), e);
-							} finally {
-								executor.shutdown();
+								return new ArrayList<>(task.getSink()).stream();
+							} else {
+								return Stream.of(t);
 							}
-							return types.stream();
-						} else {
-							return Stream.of(t);
+						} catch (CoreException e) {
+							CorePlugin.getDefault().logError(e.getMessage(), e);
 						}
-					} catch (CoreException e) {
-						CorePlugin.getDefault().logError(e.getMessage(), e);
-					}
-					return Stream.empty();
-				})
-			.flatMap(t -> {
-					try {
-						if(t.isEnum()) {
-							return createEnumProposals(context, t).stream();
+						return Stream.empty();
+					})
+				.flatMap(t -> {
+						try {
+							if(t.isEnum()) {
+								return index.literalsOf(context.getProject(), t).stream();
+							}
+						} catch (JavaModelException e) {
+							CorePlugin.getDefault().logError(e.getMessage(), e);
 						}
-					} catch (JavaModelException e) {
-						CorePlugin.getDefault().logError(e.getMessage(), e);
-					}
-					return null;
-				})
-			.filter(Predicates.notNull())
-			.collect(Collectors.toList());
-	}
-
-	private List<ICompletionProposal> createEnumProposals(JavaContentAssistInvocationContext context,
-			final IType expectedType) throws JavaModelException {
-		Set<IField> literals = Arrays.stream(expectedType.getChildren())
-				.filter(e -> {
-					try {
-						return (e.getElementType() == IJavaElement.FIELD) && Flags.isPublic(((IField)e).getFlags()) && !e.getElementName().equals("$VALUES");
-					} catch (JavaModelException e1) {
-						CorePlugin.getDefault().logError(e1.getMessage(), e1);
-					}
-					return false;
-				})
-				.map(e -> (IField) e).collect(Collectors.toSet());
-		return createEnumProposals(literals, context);
+						return Stream.empty();
+					})
+				.distinct()
+				.collect(Collectors.toList());
+		}
+		try (CompletionMetrics.Sample sample = time(CompletionMetrics.PROPOSALS)) {
+			final List<ICompletionProposal> proposals = createEnumProposals(literals, context);
+			proposals.addAll(placeholders);
+			return proposals;
+		}
 	}
 
-	private List<ICompletionProposal> createEnumProposals(Set<IField> literals,
+	private List<ICompletionProposal> createEnumProposals(List<IField> literals,
 			JavaContentAssistInvocationContext context) {
 		final ArrayList<ICompletionProposal> response = new ArrayList<>(literals.size());
+		if (literals.isEmpty()) {
+			return response;
+		}
+
 		try {
+			// all literals are converted through a single collector.
+			final CompletionProposalCollector collector = new CompletionProposalCollector(
+					context.getCompilationUnit());
+			collector.setInvocationContext(context);
+			collector.acceptContext(context.getCoreContext());
 			for (IField field : literals) {
 				CompletionProposal proposal = CompletionProposal.create(CompletionProposal.FIELD_REF,
 						context.getInvocationOffset());
@@ -158,14 +169,9 @@ public class SmartEnumLiteralProposalComputer extends AbstractSmartProposalCompu
 				proposal.setSignature(field.getTypeSignature().toCharArray());
 				proposal.setRequiredProposals(
 						new CompletionProposal[] { createImportProposal(context, field.getDeclaringType()) });
-
-				CompletionProposalCollector collector = new CompletionProposalCollector(context.getCompilationUnit());
-				collector.setInvocationContext(context);
-				collector.acceptContext(context.getCoreContext());
 				collector.accept(proposal);
-
-				response.addAll(Arrays.asList(collector.getJavaCompletionProposals()));
 			}
+			response.addAll(Arrays.asList(collector.getJavaCompletionProposals()));
 		} catch (Exception e) {
 			CorePlugin.getDefault().logError("Error occured while creating proposals.", e);
 			response.trimToSize();
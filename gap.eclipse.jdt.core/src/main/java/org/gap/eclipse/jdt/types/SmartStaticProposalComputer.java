@@ -1,6 +1,5 @@
 package org.gap.eclipse.jdt.types;
 
-import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -15,7 +14,7 @@ import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 
 public class SmartStaticProposalComputer extends AbstractSmartProposalComputer implements IJavaCompletionProposalComputer {
-	public static final String CATEGORY_ID = "gap.eclipse.jdt.proposalCategory.smartStatic";
+	public static final String CATEGORY_ID = "gap.eclipse.jdt.core.smartStatic";
 
 	private StaticMemberFinder staticMemberFinder = new StaticMemberFinder();
 
@@ -38,9 +37,8 @@ public class SmartStaticProposalComputer extends AbstractSmartProposalComputer i
 
 	private List<ICompletionProposal> completionList(IProgressMonitor monitor,
 			JavaContentAssistInvocationContext context, List<String> typeNames) {
-		final Duration blockDuration = isAsyncCompletionActive(context) ? null : Duration.ofMillis(TIMEOUT);
 		if (!isPreceedSpaceNewKeyword(context)) {
-			return staticMemberFinder.find(typeNames, context, monitor, blockDuration).collect(Collectors.toList());
+			return staticMemberFinder.find(typeNames, context, monitor, getBudget(context)).collect(Collectors.toList());
 		}
 		return Collections.emptyList();
 	}
@@ -1,6 +1,5 @@
 package org.gap.eclipse.jdt.types;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -22,7 +21,7 @@ import org.gap.eclipse.jdt.common.Log;
 public class SmartTypeProposalComputer extends AbstractSmartProposalComputer
 		implements IJavaCompletionProposalComputer {
 
-	public static final String CATEGORY_ID = "gap.eclipse.jdt.proposalCategory.smartSubType";
+	public static final String CATEGORY_ID = "gap.eclipse.jdt.core.smartType";
 
 	private SubTypeFinder subTypeFinder = new SubTypeFinder();
 
@@ -77,8 +76,7 @@ public class SmartTypeProposalComputer extends AbstractSmartProposalComputer
 		List<ICompletionProposal> result = new ArrayList<>();
 		if (isPreceedSpaceNewKeyword(context)) {
 			if (performSubType) {
-				Duration timeout = isAsyncCompletionActive(context) ? null : Duration.ofMillis(TIMEOUT);
-				result.addAll(subTypeFinder.find(expectedType, context, monitor, timeout).collect(Collectors.toList()));
+				result.addAll(subTypeFinder.find(expectedType, context, monitor, getBudget(context)).collect(Collectors.toList()));
 			}
 			if (arrayType) {
 				result.add(Proposals.toTypeProposal(expectedType, context, arrayType, false));
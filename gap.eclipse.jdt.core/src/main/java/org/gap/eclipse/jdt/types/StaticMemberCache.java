@@ -0,0 +1,195 @@
+package org.gap.eclipse.jdt.types;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of the static members accepted by complete static searches.
+ * <p>
+ * Entries are keyed by the classpath of the project and the expected types,
+ * so a classpath change never hits an old entry. Members are kept sorted by
+ * their lower case name, which lets a search for a longer token be answered
+ * from the entry of a shorter one by reading the matching sub map. The cache
+ * is bounded by the total number of members it holds, which can be configured
+ * with the <code>org.gap.eclipse.jdt.types.staticMemberCacheWeight</code>
+ * system property.
+ * </p>
+ * <p>
+ * Which members a search accepts depends on the sources and archives it
+ * searched, so the whole cache is dropped when a compilation unit is added,
+ * removed or saved, or an archive or project changes.
+ * </p>
+ */
+public final class StaticMemberCache implements IElementChangedListener {
+	private static final long MAX_WEIGHT = Long.getLong("org.gap.eclipse.jdt.types.staticMemberCacheWeight",
+			50_000);
+
+	private final Cache<Key, Entry> cache = CacheBuilder.newBuilder().maximumWeight(MAX_WEIGHT)
+			.weigher((Key k, Entry e) -> e.size).build();
+
+	public StaticMemberCache() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the cached members for the given search, or <code>null</code> if
+	 * the search was not performed for the token or a prefix of it.
+	 */
+	Collection<IMember> find(IJavaProject project, Collection<String> expectedTypes, boolean expandSubTypes,
+			String token) {
+		final Entry entry = cache.getIfPresent(new Key(project, expectedTypes, expandSubTypes));
+		final String lowerToken = token.toLowerCase(Locale.ENGLISH);
+		if (entry == null || !lowerToken.startsWith(entry.token)) {
+			return null;
+		}
+
+		final List<IMember> result = new ArrayList<>();
+		entry.members.subMap(lowerToken, true, lowerToken + Character.MAX_VALUE, false).values()
+				.forEach(members -> members.stream()
+						// a token search only matches methods.
+						.filter(m -> lowerToken.isEmpty() || m instanceof IMethod)
+						.forEach(result::add));
+		return result;
+	}
+
+	/**
+	 * Stores the members accepted by a search which ran to completion.
+	 */
+	void store(IJavaProject project, Collection<String> expectedTypes, boolean expandSubTypes, String token,
+			Collection<IMember> accepted) {
+		final Entry entry = new Entry(token.toLowerCase(Locale.ENGLISH));
+		for (IMember member : accepted) {
+			entry.members.computeIfAbsent(member.getElementName().toLowerCase(Locale.ENGLISH), k -> new ArrayList<>())
+					.add(member);
+		}
+		entry.size = Math.max(1, accepted.size());
+		cache.put(new Key(project, expectedTypes, expandSubTypes), entry);
+	}
+
+	void invalidate() {
+		cache.invalidateAll();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (cache.size() > 0 && isAffected(event.getDelta())) {
+			invalidate();
+		}
+	}
+
+	private boolean isAffected(IJavaElementDelta delta) {
+		switch (delta.getElement().getElementType()) {
+		case IJavaElement.JAVA_PROJECT:
+			if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_CLOSED
+					| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+				return true;
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags()
+					& (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+							| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+				return true;
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT:
+			if (delta.getKind() != IJavaElementDelta.CHANGED) {
+				return true;
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+		case IJavaElement.CLASS_FILE:
+			return delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & IJavaElementDelta.F_CONTENT) != 0;
+		default:
+			break;
+		}
+
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (isAffected(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		cache.invalidateAll();
+	}
+
+	private static final class Key {
+		private final String project;
+
+		private final int classpathHash;
+
+		private final Collection<String> expectedTypes;
+
+		private final boolean expandSubTypes;
+
+		private Key(IJavaProject project, Collection<String> expectedTypes, boolean expandSubTypes) {
+			this.project = project.getHandleIdentifier();
+			this.classpathHash = classpathHash(project);
+			this.expectedTypes = new TreeSet<>(expectedTypes);
+			this.expandSubTypes = expandSubTypes;
+		}
+
+		private static int classpathHash(IJavaProject project) {
+			try {
+				return Arrays.hashCode(project.getResolvedClasspath(true));
+			} catch (JavaModelException e) {
+				return 0;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(project, classpathHash, expectedTypes, expandSubTypes);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return project.equals(other.project) && classpathHash == other.classpathHash
+					&& expectedTypes.equals(other.expectedTypes) && expandSubTypes == other.expandSubTypes;
+		}
+	}
+
+	private static final class Entry {
+		private final String token;
+
+		private final NavigableMap<String, List<IMember>> members = new TreeMap<>();
+
+		private int size;
+
+		private Entry(String token) {
+			this.token = token;
+		}
+	}
+}
@@ -1,31 +1,36 @@
 package org.gap.eclipse.jdt.types;
 
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
@@ -38,7 +43,13 @@ import org.eclipse.jdt.internal.core.search.matching.MatchLocator;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.common.SearchPool;
+import org.gap.eclipse.jdt.common.SignatureCursor;
 import org.gap.eclipse.jdt.common.Signatures;
+import org.gap.eclipse.jdt.index.ArchiveIndex;
+import org.gap.eclipse.jdt.index.IndexedMember;
+import org.gap.eclipse.jdt.index.StaticMemberIndex;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics;
 
 import com.google.common.base.Predicates;
 
@@ -47,31 +58,43 @@ public class StaticMemberFinder {
 
 	private final LastInvocation lastInvocation = new LastInvocation();
 
-	private CachedSearchParticipant cachedSearchParticipant = new CachedSearchParticipant(
-			new FilteredSearchParticipant(SearchEngine.getDefaultSearchParticipant()));
+	private final SearchParticipant searchParticipant = new FilteredSearchParticipant(
+			SearchEngine.getDefaultSearchParticipant());
+
+	// the return type of each matched method is read into the cursor of the searching thread.
+	private static final ThreadLocal<SignatureCursor> RETURN_TYPE = ThreadLocal.withInitial(SignatureCursor::new);
 
 	public Stream<ICompletionProposal> find(final List<String> expectedTypeFQNs,
-			JavaContentAssistInvocationContext context, IProgressMonitor monitor, Duration timeout) {
+			JavaContentAssistInvocationContext context, IProgressMonitor monitor, CompletionBudget budget) {
 		boolean expandSubTypes = false;		
 	
 		if (lastInvocation.canPerformSecondarySearch(context)) {
-			if(!lastInvocation.wasLastSecondarySearch()) {
-				cachedSearchParticipant.resetCache();
-			}
 			expandSubTypes = true;
 		}
 	
-		return performSearch(expectedTypeFQNs, context, monitor, timeout, expandSubTypes)
-				.map(m -> toCompletionProposal(m, context, monitor)).filter(Predicates.notNull());
+		final CompletionMetrics metrics = CorePlugin.getDefault().getCompletionMetrics();
+		final List<ICompletionProposal> placeholders = new ArrayList<>(1);
+		final List<IMember> members;
+		try (CompletionMetrics.Sample sample = metrics.time(CompletionMetrics.SEARCH)) {
+			members = performSearch(expectedTypeFQNs, context, monitor, budget, expandSubTypes, placeholders)
+					.collect(Collectors.toList());
+		}
+		final List<ICompletionProposal> proposals;
+		try (CompletionMetrics.Sample sample = metrics.time(CompletionMetrics.PROPOSALS)) {
+			proposals = members.parallelStream().map(m -> toCompletionProposal(m, context, monitor))
+					.filter(Predicates.notNull()).collect(Collectors.toList());
+		}
+		return Stream.concat(proposals.stream(), placeholders.stream());
 	}
 
 	private List<String> expandSearchTypes(List<String> expectedTypeFQNs, JavaContentAssistInvocationContext context,
-			IProgressMonitor monitor) {
+			CompletionSession session, IProgressMonitor monitor) {
 		final IJavaProject project = context.getCompilationUnit().getJavaProject();
 		return expectedTypeFQNs.stream().parallel().flatMap(type -> {
 			try {
-				IType foundType = project.findType(Signature.getTypeErasure(type), monitor);
-				return Stream.of(foundType.newTypeHierarchy(project, monitor).getAllSubtypes(foundType))
+				IType foundType = session.findType(project, Signature.getTypeErasure(type), monitor);
+				return Stream.of(CorePlugin.getDefault().getTypeHierarchyCache().hierarchy(project, foundType, monitor)
+						.getAllSubtypes(foundType))
 						.filter(t -> Signatures.isNoOfTypeParametersEqual(t,type));
 			} catch (CoreException e) {
 				CorePlugin.getDefault().logError(e.getMessage(), e);
@@ -117,29 +140,20 @@ public class StaticMemberFinder {
 		}
 	}
 
-	private boolean matchReturnTypeIfMethod(IMember member, List<String> typeSigs,
-			JavaContentAssistInvocationContext context, IProgressMonitor monitor) {
+	private boolean matchReturnTypeIfMethod(IMember member, List<SignatureCursor> typeSigs,
+			JavaContentAssistInvocationContext context, CompletionSession session, IProgressMonitor monitor) {
 		try {
 			if (member instanceof IMethod) {
-				String type = Signatures.getFullQualifiedResolvedReturnType((IMethod) member);
+				final SignatureCursor type = Signatures.getFullQualifiedResolvedReturnType((IMethod) member,
+						RETURN_TYPE.get());
 
-				for (String typeSig : typeSigs) {
-					if (Signature.getTypeSignatureKind(type) == Signature.getTypeSignatureKind(typeSig)
-							&& Signatures.isAssignable(type, typeSig)) {
+				for (SignatureCursor typeSig : typeSigs) {
+					if (type.kind() == typeSig.kind() && Signatures.isAssignable(type, typeSig)) {
+						return true;
+					} else if (isParameterized(type) && typeSig.erasureName() != null && type.erasureName() != null
+							&& CorePlugin.getDefault().getTypeTable().isSubtype(context.getProject(),
+									type.erasureName(), typeSig.erasureName(), session, monitor)) {
 						return true;
-					} else if (isParameterized(type)) {
-						IType leftType = context.getProject()
-								.findType(Signature
-										.getTypeErasure(String.join(".", Signature.getSignatureQualifier(typeSig),
-												Signature.getSignatureSimpleName(typeSig))));
-						IType rightType = context.getProject()
-								.findType(Signature.getTypeErasure(
-										String.join(".", String.join(".", Signature.getSignatureQualifier(type),
-												Signature.getSignatureSimpleName(type)))));
-						if (leftType != null && rightType != null
-								&& rightType.newSupertypeHierarchy(monitor).contains(leftType)) {
-							return true;
-						}
 					}
 				}
 				return false;
@@ -151,39 +165,110 @@ public class StaticMemberFinder {
 		return true;
 	}
 
-	private boolean isParameterized(String type) {
-		String[] ta = Signature.getTypeArguments(type);
-		return Stream.of(ta).map(Signature::getTypeSignatureKind)
-				.allMatch(k -> (k == Signature.WILDCARD_TYPE_SIGNATURE || k == Signature.TYPE_VARIABLE_SIGNATURE));
+	private boolean isParameterized(SignatureCursor type) {
+		final int arguments = type.argumentsStart();
+		if (arguments < 0) {
+			return true;
+		}
+		for (int i = arguments; type.charAt(i) != Signature.C_GENERIC_END; i = type.typeEnd(i)) {
+			final char kind = type.charAt(i);
+			if (kind != Signature.C_STAR && kind != Signature.C_EXTENDS && kind != Signature.C_SUPER
+					&& kind != Signature.C_TYPE_VARIABLE) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private boolean matchingElement(SearchMatch match) {
 		return match.getElement() instanceof IMethod || match.getElement() instanceof IField;
 	}
 
+	private IJavaElement[] searchInIndex(List<String> typeFQNs, List<SignatureCursor> typeSigs,
+			JavaContentAssistInvocationContext context, CompletionSession session, IProgressMonitor monitor,
+			Set<IMember> resultAccumerlator)
+			throws JavaModelException {
+		final StaticMemberIndex index = CorePlugin.getDefault().getStaticMemberIndex();
+		final Set<String> erasedTypes = typeFQNs.stream().map(Signature::getTypeErasure).collect(Collectors.toSet());
+		final char[] token = context.getCoreContext().getToken();
+		final List<IJavaElement> unindexedRoots = new ArrayList<>();
+
+		for (IPackageFragmentRoot root : context.getProject().getAllPackageFragmentRoots()) {
+			final ArchiveIndex archiveIndex = index.indexFor(root);
+			if (archiveIndex == null) {
+				unindexedRoots.add(root);
+				continue;
+			}
+
+			for (String type : erasedTypes) {
+				for (IndexedMember indexed : archiveIndex.find(type)) {
+					if (matchesToken(indexed, token)) {
+						final IMember member = indexed.resolve(root);
+						if (matchReturnTypeIfMethod(member, typeSigs, context, session, monitor)) {
+							resultAccumerlator.add(member);
+						}
+					}
+				}
+			}
+		}
+		return unindexedRoots.toArray(new IJavaElement[0]);
+	}
+
+	private boolean matchesToken(IndexedMember member, char[] token) {
+		// same as the token pattern used in the search, which only matches methods.
+		if (token == null || token.length == 0) {
+			return true;
+		}
+		return member.isMethod() && CharOperation.prefixEquals(token, member.getName().toCharArray(), false);
+	}
+
 	@SuppressWarnings("deprecation")
 	private Stream<IMember> performSearch(List<String> typeFQNs, JavaContentAssistInvocationContext context,
-			IProgressMonitor monitor, Duration timeout, boolean expandSubTypes) {
+			IProgressMonitor invocationMonitor, CompletionBudget budget, boolean expandSubTypes,
+			List<ICompletionProposal> placeholders) {
 		final SearchJobTracker searchJobTracker = new SearchJobTracker();
-		final SearchEngine engine = new SearchEngine();
+		// taken on the calling thread, the search task may outlive the session.
+		final CompletionSession session = CompletionSession.of(context);
+		final StaticMemberCache memberCache = CorePlugin.getDefault().getStaticMemberCache();
+		final char[] tokenChars = context.getCoreContext().getToken();
+		final String token = tokenChars != null ? new String(tokenChars) : "";
+
+		final Collection<IMember> cached = memberCache.find(context.getProject(), typeFQNs, expandSubTypes, token);
+		CorePlugin.getDefault().getCompletionMetrics().cacheAccess("staticMemberCache", cached != null);
+		if (cached != null) {
+			return prioritized(cached).stream().limit(100).parallel();
+		}
 
-		final ExecutorService executor = Executors.newSingleThreadExecutor();
-		final Set<IMember> resultAccumerlator = Collections.synchronizedSet(new HashSet<>());
-		
-		Future<?> task = executor.submit(() -> {
+		final SearchPool.Task<Set<IMember>> task = CorePlugin.getDefault().getSearchPool().submit(
+				StaticMemberFinder.class.getName(), context.getCompilationUnit(), context.getInvocationOffset(),
+				new Object[] { typeFQNs, token, expandSubTypes },
+				Collections.synchronizedSet(new HashSet<>()), invocationMonitor,
+				budget.track(StaticMemberFinder.class.getSimpleName(), (resultAccumerlator, monitor) -> {
 			try {
 				List<String> expectedTypeFQNs = new ArrayList<>(typeFQNs);
 				if(expandSubTypes) {
-					expectedTypeFQNs.addAll(expandSearchTypes(typeFQNs, context, monitor));
+					expectedTypeFQNs.addAll(expandSearchTypes(typeFQNs, context, session, monitor));
 				}
 				
 				SearchPattern pattern = null;
 				int searchInMask = JavaSearchScope.SYSTEM_LIBRARIES | JavaSearchScope.SOURCES
 						| JavaSearchScope.REFERENCED_PROJECTS | JavaSearchScope.APPLICATION_LIBRARIES;
 
-				final List<String> typeSigs = expectedTypeFQNs.isEmpty() ? Collections.emptyList()
-						: expectedTypeFQNs.stream().map(f -> Signature.createTypeSignature(f, true))
+				final List<SignatureCursor> typeSigs = expectedTypeFQNs.isEmpty() ? Collections.emptyList()
+						: expectedTypeFQNs.stream().map(f -> SignatureCursor.of(Signature.createTypeSignature(f, true)))
 								.collect(Collectors.toList());
+
+				IJavaElement[] searchElements = new IJavaElement[] { context.getProject() };
+				if (!expectedTypeFQNs.isEmpty()) {
+					// archives which are already indexed are not searched by the search engine.
+					searchElements = searchInIndex(expectedTypeFQNs, typeSigs, context, session, monitor,
+							resultAccumerlator);
+					if (searchElements.length == 0) {
+						memberCache.store(context.getProject(), typeFQNs, expandSubTypes, token, resultAccumerlator);
+						return;
+					}
+				}
+
 				if (!expectedTypeFQNs.isEmpty()) {
 					for (String fqn : expectedTypeFQNs) {
 						SearchPattern p = SearchPattern.createPattern(fqn, IJavaSearchConstants.TYPE,
@@ -216,62 +301,139 @@ public class StaticMemberFinder {
 				}
 
 				final SearchPattern finalPattern = pattern;
-				final int includeMask = searchInMask;
-
-
-				cachedSearchParticipant.beforeSearch(expectedTypeFQNs, new String(context.getCoreContext().getToken()));
-				
-				searchJobTracker.startTracking();
-				engine.search(finalPattern, new SearchParticipant[] { cachedSearchParticipant },
-						SearchEngine.createJavaSearchScope(new IJavaElement[] { context.getProject() }, includeMask),
-						new SearchRequestor() {
-							@Override
-							public void acceptSearchMatch(SearchMatch match) throws CoreException {
-								cachedSearchParticipant.cacheMatch(match);
-								if (matchingElement(match)) {
-									final IMember member = (IMember) match.getElement();
-									if (onlyPublicStatic(member)
-											&& (typeSigs.isEmpty()
-													|| matchReturnTypeIfMethod(member, typeSigs, context, monitor))) {
-										resultAccumerlator.add((IMember) match.getElement());
-									}
-								}
+				final SearchRequestor requestor = new SearchRequestor() {
+					@Override
+					public void acceptSearchMatch(SearchMatch match) throws CoreException {
+						if (matchingElement(match)) {
+							final IMember member = (IMember) match.getElement();
+							if (onlyPublicStatic(member)
+									&& (typeSigs.isEmpty()
+											|| matchReturnTypeIfMethod(member, typeSigs, context, session, monitor))) {
+								resultAccumerlator.add((IMember) match.getElement());
 							}
+						}
+					}
+				};
 
-							@Override
-							public void endReporting() {
-								searchJobTracker.finishTracking();
-							}
+				// each part searches one index, the parts run in parallel and share the requestor.
+				final AtomicBoolean completed = new AtomicBoolean(true);
+				final List<Consumer<IProgressMonitor>> parts = new ArrayList<>();
+				for (IJavaElement[] partition : partitions(searchElements)) {
+					final IJavaSearchScope scope = expectedTypeFQNs.isEmpty()
+							? SearchEngine.createJavaSearchScope(partition, searchInMask)
+							: SearchEngine.createJavaSearchScope(partition);
+					parts.add(partMonitor -> {
+						try {
+							new SearchEngine().search(finalPattern, new SearchParticipant[] { searchParticipant },
+									scope, requestor, partMonitor);
+						} catch (OperationCanceledException e) {
+							completed.set(false);
+						} catch (CoreException e) {
+							completed.set(false);
+							CorePlugin.getDefault().logError(e.getMessage(), e);
+						}
+					});
+				}
 
-						}, monitor);
+				searchJobTracker.startTracking();
+				CorePlugin.getDefault().getSearchPool().runParts(parts, monitor);
+				// only a search which ran to completion can answer later searches.
+				if (completed.get() && !monitor.isCanceled()) {
+					memberCache.store(context.getProject(), typeFQNs, expandSubTypes, token, resultAccumerlator);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (OperationCanceledException e) {
+				// canceled, keep what was collected so far.
 			} catch (CoreException e) {
 				CorePlugin.getDefault().logError(e.getMessage(), e);
+			} finally {
+				searchJobTracker.finishTracking();
 			}
-		});
+		}));
 
+		boolean completed = true;
 		try {
-			if (timeout != null) {
-				task.get(timeout.getSeconds(), TimeUnit.SECONDS);
-			} else {
-				task.get();
+			completed = budget.await(task.getFuture());
+		} catch (InterruptedException e) {
+			CorePlugin.getDefault().logError(e.getMessage(), e);
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			CorePlugin.getDefault().logError(e.getMessage(), e);
+		}
+
+		if (!completed && budget.isStreaming()) {
+			// the rest is delivered by refreshing the proposals while the search runs.
+			final ICompletionProposal computing = ProposalStream.follow(context, task,
+					SmartStaticProposalComputer.CATEGORY_ID);
+			if (computing != null) {
+				placeholders.add(computing);
 			}
-		} catch (TimeoutException e) {
+		}
+
+		// copy since the search may still be running.
+		final List<IMember> resultAccumerlator = new ArrayList<>(task.getSink());
+		if (!completed && !budget.isStreaming()) {
 			// do nothing since we return what we have collected so far.
 			lastInvocation.reset(); // we don't want a expanded search in next try.
 			if(resultAccumerlator.isEmpty()) {
 				resultAccumerlator.add(new MessageCompletionMember("Searching for static references ⌛"));
 				resultAccumerlator.add(new MessageCompletionMember("Try again after static search finish"));
 			}
-		} catch (InterruptedException e) {
-			CorePlugin.getDefault().logError(e.getMessage(), e);
-			Thread.currentThread().interrupt();
-		} catch (Exception e) {
-			CorePlugin.getDefault().logError(e.getMessage(), e);
-		} finally {
-			executor.shutdown();
 		}
+		return prioritized(resultAccumerlator).stream().limit(100).parallel();
+	}
 
-		// copy and create a stream.
-		return new ArrayList<>(resultAccumerlator).stream().limit(100).parallel();
+	/**
+	 * Splits the elements to search into parts which each search one index. Every
+	 * archive has its own index, except the modules of a JRE which share the
+	 * index of their image, and the source folders of a project share the index
+	 * of the project. Parts holding the packages which are searched first by the
+	 * {@link FilteredSearchParticipant} come first.
+	 */
+	private List<IJavaElement[]> partitions(IJavaElement[] elements) throws JavaModelException {
+		final Map<IPath, Set<IJavaElement>> byIndex = new LinkedHashMap<>();
+		final Set<IPath> priority = new HashSet<>();
+		for (IJavaElement element : elements) {
+			final IPackageFragmentRoot[] roots = element instanceof IJavaProject
+					? ((IJavaProject) element).getAllPackageFragmentRoots()
+					: new IPackageFragmentRoot[] { (IPackageFragmentRoot) element };
+			for (IPackageFragmentRoot root : roots) {
+				final IPath index = root.getKind() == IPackageFragmentRoot.K_SOURCE ? root.getJavaProject().getPath()
+						: root.getPath();
+				final Set<IJavaElement> part = byIndex.computeIfAbsent(index, k -> new LinkedHashSet<>());
+				if (part.add(root)) {
+					if (!priority.contains(index) && FilteredSearchParticipant.isPriorityRoot(root)) {
+						priority.add(index);
+					}
+				}
+			}
+		}
+
+		final List<IJavaElement[]> partitions = new ArrayList<>(byIndex.size());
+		final List<IJavaElement[]> others = new ArrayList<>(byIndex.size());
+		byIndex.forEach((index, part) -> (priority.contains(index) ? partitions : others)
+				.add(part.toArray(new IJavaElement[0])));
+		partitions.addAll(others);
+		return partitions;
+	}
+
+	/**
+	 * Returns the members with the ones from the packages which are searched first
+	 * at the front, so they are kept when the results are limited.
+	 */
+	private static List<IMember> prioritized(Collection<IMember> members) {
+		final List<IMember> result = new ArrayList<>(members.size());
+		final List<IMember> others = new ArrayList<>(members.size());
+		for (IMember member : members) {
+			final IJavaElement fragment = member.getAncestor(IJavaElement.PACKAGE_FRAGMENT);
+			if (fragment != null && FilteredSearchParticipant.isPriorityPackage(fragment.getElementName())) {
+				result.add(member);
+			} else {
+				others.add(member);
+			}
+		}
+		result.addAll(others);
+		return result;
 	}
 }
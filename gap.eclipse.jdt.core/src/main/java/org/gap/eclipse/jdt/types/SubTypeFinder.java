@@ -1,21 +1,15 @@
 package org.gap.eclipse.jdt.types;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
@@ -24,31 +18,45 @@ import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.gap.eclipse.jdt.CorePlugin;
 import org.gap.eclipse.jdt.common.Log;
+import org.gap.eclipse.jdt.common.SearchPool;
+import org.gap.eclipse.jdt.metrics.CompletionMetrics;
 
 public class SubTypeFinder {
 
 	public Stream<ICompletionProposal> find(final IType expectedType, JavaContentAssistInvocationContext context,
-			IProgressMonitor monitor, Duration timeout) {
-		return performSearch(expectedType, context, monitor, timeout)
-				.map(m -> {
-					try {
-						return Proposals.toConstructorProposal(m, context);
-					} catch (JavaModelException e) {
-						Log.error(e);
-						return null;
-					}
-				}).filter(Objects::nonNull);
+			IProgressMonitor monitor, CompletionBudget budget) {
+		final CompletionMetrics metrics = CorePlugin.getDefault().getCompletionMetrics();
+		final List<ICompletionProposal> placeholders = new ArrayList<>(1);
+		final List<IMethod> constructors;
+		try (CompletionMetrics.Sample sample = metrics.time(CompletionMetrics.SEARCH)) {
+			constructors = performSearch(expectedType, context, monitor, budget, placeholders).collect(Collectors.toList());
+		}
+		final List<ICompletionProposal> proposals;
+		try (CompletionMetrics.Sample sample = metrics.time(CompletionMetrics.PROPOSALS)) {
+			proposals = constructors.stream().map(m -> {
+				try {
+					return Proposals.toConstructorProposal(m, context);
+				} catch (JavaModelException e) {
+					Log.error(e);
+					return null;
+				}
+			}).filter(Objects::nonNull).collect(Collectors.toList());
+		}
+		return Stream.concat(proposals.stream(), placeholders.stream());
 	}
 
 	private Stream<IMethod> performSearch(IType expectedType, JavaContentAssistInvocationContext context,
-			IProgressMonitor monitor, Duration timeout) {
-		final List<IMethod> resultAccumerlator = Collections.synchronizedList(new ArrayList<>());
+			IProgressMonitor invocationMonitor, CompletionBudget budget, List<ICompletionProposal> placeholders) {
 
-		final ExecutorService executor = Executors.newSingleThreadExecutor();
-		Future<?> task = executor.submit(() -> {
+		final SearchPool.Task<List<IMethod>> task = CorePlugin.getDefault().getSearchPool().submit(
+				SubTypeFinder.class.getName(), context.getCompilationUnit(), context.getInvocationOffset(),
+				new Object[] { expectedType.getHandleIdentifier() }, Collections.synchronizedList(new ArrayList<>()),
+				invocationMonitor, budget.track(SubTypeFinder.class.getSimpleName(), (resultAccumerlator, monitor) -> {
 			try {
-				IType[] subtypes = expectedType.newTypeHierarchy(monitor).getAllSubtypes(expectedType);
-				Set<IMethod> constructors = Stream.of(subtypes).filter(t -> {
+				IType[] subtypes = CorePlugin.getDefault().getTypeHierarchyCache().hierarchy(null, expectedType, monitor)
+						.getAllSubtypes(expectedType);
+				// constructors are published one by one so streaming can deliver them early.
+				Stream.of(subtypes).filter(t -> {
 					try {
 						return !Flags.isAbstract(t.getFlags()) && Flags.isPublic(t.getFlags());
 					} catch (JavaModelException e) {
@@ -69,26 +77,28 @@ public class SubTypeFinder {
 						Log.error(e);
 						return Stream.empty();
 					}
-				}).collect(Collectors.toSet());
-				resultAccumerlator.addAll(constructors);
+				}).distinct().forEach(resultAccumerlator::add);
+			} catch (OperationCanceledException e) {
+				// canceled before the hierarchy was computed.
 			} catch (CoreException e) {
 				CorePlugin.getDefault().logError(e.getMessage(), e);
 			}
-		});
+		}));
 
 		try {
-			if (timeout != null) {
-				task.get(timeout.getSeconds(), TimeUnit.SECONDS);
-			} else {
-				task.get();
+			// on timeout we return what we have collected so far.
+			if (!budget.await(task.getFuture()) && budget.isStreaming()) {
+				final ICompletionProposal computing = ProposalStream.follow(context, task,
+						SmartTypeProposalComputer.CATEGORY_ID);
+				if (computing != null) {
+					placeholders.add(computing);
+				}
 			}
-		} catch (TimeoutException e) {
-			// do nothing since we return what we have collected so far.
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		} catch (Exception e) {
 			CorePlugin.getDefault().logError(e.getMessage(), e);
-		} finally {
-			executor.shutdownNow();
 		}
-		return new ArrayList<>(resultAccumerlator).stream(); // copy and create the stream.
+		return new ArrayList<>(task.getSink()).stream(); // copy and create the stream.
 	}
 }
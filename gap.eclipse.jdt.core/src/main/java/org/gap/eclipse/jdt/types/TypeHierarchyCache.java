@@ -0,0 +1,428 @@
+package org.gap.eclipse.jdt.types;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.gap.eclipse.jdt.CorePlugin;
+import org.gap.eclipse.jdt.Messages;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Cache of the type hierarchies used to expand the expected types of the smart
+ * completions, and of the supertype hierarchies used to match the return types
+ * of static members.
+ * <p>
+ * A single Java element listener drops the hierarchies affected by a change:
+ * those which contain a type that was added, removed or changed its
+ * supertypes, those which may gain such a type as a subtype, and those of
+ * projects whose classpath changed. Compilation units changed without fine
+ * grained deltas count as a change of all their types.
+ * </p>
+ * <p>
+ * The cache is bounded by the total number of types held by the cached
+ * hierarchies, which can be configured with the
+ * <code>org.gap.eclipse.jdt.types.hierarchyCacheTypeCount</code> system
+ * property. The most requested hierarchies are created again in the
+ * background after they were dropped. Request counts are kept for at most
+ * <code>org.gap.eclipse.jdt.types.hierarchyRequestCount</code> types.
+ * </p>
+ * <p>
+ * Supertype hierarchies are small and cheap to create again, they are neither
+ * counted nor warmed, and at most
+ * <code>org.gap.eclipse.jdt.types.supertypeHierarchyCount</code> of them are
+ * kept.
+ * </p>
+ */
+public final class TypeHierarchyCache implements IElementChangedListener {
+	private static final long MAX_TYPES = Long.getLong("org.gap.eclipse.jdt.types.hierarchyCacheTypeCount", 200_000);
+
+	private static final int WARM_COUNT = Integer.getInteger("org.gap.eclipse.jdt.types.hierarchyWarmCount", 10);
+
+	private static final int MAX_REQUESTS = Integer.getInteger("org.gap.eclipse.jdt.types.hierarchyRequestCount",
+			1000);
+
+	private static final int MAX_SUPERTYPES = Integer.getInteger("org.gap.eclipse.jdt.types.supertypeHierarchyCount",
+			500);
+
+	private static final String WORKSPACE = "";
+
+	// prefix of the keys of supertype hierarchies.
+	private static final String SUPERTYPES = "^";
+
+	private final Cache<String, Entry> cache;
+
+	private final Cache<String, Entry> supertypeCache;
+
+	private final Map<String, Request> requests = new ConcurrentHashMap<>();
+
+	private final Job warmJob;
+
+	public TypeHierarchyCache() {
+		cache = CacheBuilder.newBuilder().maximumWeight(MAX_TYPES).weigher((String k, Entry e) -> e.weight)
+				.build();
+		supertypeCache = CacheBuilder.newBuilder().maximumSize(MAX_SUPERTYPES).build();
+		warmJob = new Job(Messages.TypeHierarchyCache_WarmJobName) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return warm(monitor);
+			}
+		};
+		warmJob.setSystem(true);
+		warmJob.setPriority(Job.DECORATE);
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the hierarchy of the given type in the given project, or in the
+	 * whole workspace if the project is <code>null</code>.
+	 */
+	public ITypeHierarchy hierarchy(IJavaProject project, IType type, IProgressMonitor monitor)
+			throws JavaModelException {
+		final Request request = new Request(project, type, false);
+		final String key = request.key();
+		requests.computeIfAbsent(key, k -> request).count.incrementAndGet();
+		if (requests.size() > MAX_REQUESTS) {
+			trimRequests();
+		}
+		return get(cache, key, request, monitor);
+	}
+
+	/**
+	 * Returns the supertype hierarchy of the given type.
+	 */
+	public ITypeHierarchy supertypeHierarchy(IType type, IProgressMonitor monitor) throws JavaModelException {
+		final Request request = new Request(null, type, true);
+		return get(supertypeCache, request.key(), request, monitor);
+	}
+
+	private ITypeHierarchy get(Cache<String, Entry> cache, String key, Request request, IProgressMonitor monitor)
+			throws JavaModelException {
+		final boolean[] created = new boolean[1];
+		try {
+			final Entry entry = cache.get(key, () -> {
+				created[0] = true;
+				return new Entry(request.create(monitor));
+			});
+			CorePlugin.getDefault().getCompletionMetrics().cacheAccess("typeHierarchyCache", !created[0]);
+			return entry.hierarchy;
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof JavaModelException) {
+				throw (JavaModelException) e.getCause();
+			} else if (e.getCause() instanceof OperationCanceledException) {
+				throw (OperationCanceledException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static String key(IJavaProject project, IType type) {
+		return (project == null ? WORKSPACE : project.getHandleIdentifier()) + "|" + type.getHandleIdentifier();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		final Changes changes = new Changes();
+		boolean invalidated = collect(event.getDelta(), changes);
+		if (!changes.isEmpty()) {
+			invalidated |= invalidate(cache, changes, true);
+			invalidate(supertypeCache, changes, false);
+			// removed types are no longer warmed.
+			for (IType type : changes.types) {
+				if (!type.exists()) {
+					final String suffix = "|" + type.getHandleIdentifier();
+					requests.keySet().removeIf(k -> k.endsWith(suffix));
+				}
+			}
+		}
+		if (invalidated) {
+			warmJob.schedule(2000);
+		}
+	}
+
+	/**
+	 * Drops the hierarchies of projects which are gone or whose classpath
+	 * changed, and collects the types and units whose hierarchies have to be
+	 * checked.
+	 *
+	 * @return <code>true</code> if type hierarchies were dropped.
+	 */
+	private boolean collect(IJavaElementDelta delta, Changes changes) {
+		final IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_PROJECT:
+			if (delta.getKind() == IJavaElementDelta.REMOVED
+					|| (delta.getFlags() & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+				return invalidateProject(element.getHandleIdentifier());
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if ((delta.getFlags() & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+					| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+				return invalidateProject(element.getJavaProject().getHandleIdentifier());
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+			if (((ICompilationUnit) element).isWorkingCopy()) {
+				// opening and closing an editor changes no hierarchy.
+				return false;
+			}
+			// without fine grained deltas the supertypes of the unit's types are unknown.
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| ((delta.getFlags() & IJavaElementDelta.F_CONTENT) != 0
+							&& (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0)) {
+				changes.units.add((ICompilationUnit) element);
+				return false;
+			}
+			break;
+		case IJavaElement.TYPE:
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & IJavaElementDelta.F_SUPER_TYPES) != 0) {
+				changes.types.add((IType) element);
+			}
+			break;
+		default:
+			break;
+		}
+
+		boolean invalidated = false;
+		if (element.getElementType() <= IJavaElement.TYPE) {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				invalidated |= collect(child, changes);
+			}
+		}
+		return invalidated;
+	}
+
+	private boolean invalidateProject(String projectHandle) {
+		final List<String> keys = cache.asMap().keySet().stream()
+				.filter(k -> k.startsWith(projectHandle + "|") || k.startsWith(WORKSPACE + "|"))
+				.collect(Collectors.toList());
+		cache.invalidateAll(keys);
+		supertypeCache.invalidateAll(supertypeCache.asMap().keySet().stream()
+				.filter(k -> k.startsWith(SUPERTYPES + projectHandle + "|")).collect(Collectors.toList()));
+		return !keys.isEmpty();
+	}
+
+	/**
+	 * Drops the hierarchies of the given cache which are affected by the given
+	 * changes.
+	 *
+	 * @return <code>true</code> if hierarchies were dropped.
+	 */
+	private boolean invalidate(Cache<String, Entry> entries, Changes changes, boolean subtypes) {
+		final Set<String> superNames = subtypes ? changes.superNames() : Collections.emptySet();
+		final List<String> keys = entries.asMap().entrySet().stream()
+				.filter(e -> e.getValue().isAffected(changes, superNames))
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+		entries.invalidateAll(keys);
+		return !keys.isEmpty();
+	}
+
+	/**
+	 * Keeps the most requested half of the request counts, and halves them so
+	 * types which are no longer requested eventually make room for new ones.
+	 */
+	private synchronized void trimRequests() {
+		if (requests.size() <= MAX_REQUESTS) {
+			return;
+		}
+
+		final List<String> leastRequested = requests.entrySet().stream()
+				.sorted(Comparator.comparingInt((Map.Entry<String, Request> e) -> e.getValue().count.get()))
+				.limit(requests.size() - MAX_REQUESTS / 2)
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+		requests.keySet().removeAll(leastRequested);
+		requests.values().forEach(r -> r.count.updateAndGet(c -> Math.max(1, c / 2)));
+	}
+
+	/**
+	 * Creates the hierarchies of the most requested types which are not in the
+	 * cache.
+	 */
+	private IStatus warm(IProgressMonitor monitor) {
+		final List<Request> mostRequested = requests.entrySet().stream()
+				.filter(e -> cache.getIfPresent(e.getKey()) == null)
+				.map(Map.Entry::getValue)
+				.sorted(Comparator.comparingInt((Request r) -> r.count.get()).reversed())
+				.limit(WARM_COUNT)
+				.collect(Collectors.toList());
+
+		for (Request request : mostRequested) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			if (!request.type.exists() || (request.project != null && !request.project.exists())) {
+				continue;
+			}
+
+			try {
+				cache.get(request.key(), () -> new Entry(request.create(monitor)));
+			} catch (ExecutionException | UncheckedExecutionException e) {
+				if (e.getCause() instanceof OperationCanceledException) {
+					return Status.CANCEL_STATUS;
+				}
+				CorePlugin.getDefault().logError(e.getMessage(), e.getCause());
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		warmJob.cancel();
+		cache.invalidateAll();
+		supertypeCache.invalidateAll();
+		requests.clear();
+	}
+
+	private static final class Request {
+		private final IJavaProject project;
+
+		private final IType type;
+
+		private final boolean supertypes;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		private Request(IJavaProject project, IType type, boolean supertypes) {
+			this.project = project;
+			this.type = type;
+			this.supertypes = supertypes;
+		}
+
+		private String key() {
+			return supertypes ? SUPERTYPES + key(type.getJavaProject(), type) : key(project, type);
+		}
+
+		private ITypeHierarchy create(IProgressMonitor monitor) throws JavaModelException {
+			if (supertypes) {
+				return type.newSupertypeHierarchy(monitor);
+			}
+			return project == null ? type.newTypeHierarchy(monitor) : type.newTypeHierarchy(project, monitor);
+		}
+	}
+
+	/**
+	 * The types and compilation units changed by a Java element delta.
+	 */
+	private static final class Changes {
+		private final List<IType> types = new ArrayList<>();
+
+		private final List<ICompilationUnit> units = new ArrayList<>();
+
+		private boolean isEmpty() {
+			return types.isEmpty() && units.isEmpty();
+		}
+
+		/**
+		 * Returns the simple names of the supertypes the changed types declare,
+		 * which a hierarchy must contain to gain one of them as a subtype.
+		 */
+		private Set<String> superNames() {
+			final Set<String> names = new HashSet<>();
+			final List<IType> changed = new ArrayList<>(types);
+			for (ICompilationUnit unit : units) {
+				try {
+					if (unit.exists()) {
+						Collections.addAll(changed, unit.getAllTypes());
+					}
+				} catch (JavaModelException e) {
+					CorePlugin.getDefault().logError(e.getMessage(), e);
+				}
+			}
+			for (IType type : changed) {
+				try {
+					if (type.exists()) {
+						if (type.getSuperclassName() != null) {
+							names.add(simpleName(type.getSuperclassName()));
+						}
+						for (String name : type.getSuperInterfaceNames()) {
+							names.add(simpleName(name));
+						}
+					}
+				} catch (JavaModelException e) {
+					CorePlugin.getDefault().logError(e.getMessage(), e);
+				}
+			}
+			return names;
+		}
+
+		private static String simpleName(String typeName) {
+			return Signature.getSimpleName(Signature.getTypeErasure(typeName));
+		}
+	}
+
+	private static final class Entry {
+		private final ITypeHierarchy hierarchy;
+
+		private final int weight;
+
+		// the simple names of the types of the hierarchy.
+		private final Set<String> types = new HashSet<>();
+
+		private Entry(ITypeHierarchy hierarchy) {
+			this.hierarchy = hierarchy;
+			final IType[] allTypes = hierarchy.getAllTypes();
+			this.weight = Math.max(1, allTypes.length);
+			for (IType type : allTypes) {
+				types.add(type.getElementName());
+			}
+		}
+
+		/**
+		 * Returns <code>true</code> if the hierarchy contains one of the changed
+		 * types or a type of the changed units, or a type one of the changed types
+		 * may now extend.
+		 */
+		private boolean isAffected(Changes changes, Set<String> superNames) {
+			for (IType type : changes.types) {
+				if (hierarchy.contains(type)) {
+					return true;
+				}
+			}
+			if (!changes.units.isEmpty()) {
+				for (IType type : hierarchy.getAllTypes()) {
+					if (changes.units.contains(type.getCompilationUnit())) {
+						return true;
+					}
+				}
+			}
+			for (String name : superNames) {
+				if (types.contains(name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
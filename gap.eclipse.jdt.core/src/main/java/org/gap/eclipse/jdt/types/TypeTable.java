@@ -0,0 +1,205 @@
+package org.gap.eclipse.jdt.types;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.gap.eclipse.jdt.CorePlugin;
+
+/**
+ * Table of the erased types of a project, used to decide whether a type is a
+ * subtype of another without asking the Java model for each check.
+ * <p>
+ * Types are interned by their qualified name to an int id, and the supertypes
+ * of a type, including itself, are kept as a sorted array of ids which is
+ * created the first time the type is checked. A check is then a binary search
+ * in that array. The supertypes are dropped when a type is added, removed or
+ * changes its supertypes, and the table of a project is dropped when its
+ * classpath changes.
+ * </p>
+ */
+public final class TypeTable implements IElementChangedListener {
+	private static final int[] NONE = new int[0];
+
+	private final Map<String, ProjectTypes> projects = new ConcurrentHashMap<>();
+
+	public TypeTable() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns whether the type with the given qualified name is the same as or a
+	 * subtype of the other type. Names are erasures with member types separated
+	 * by dots, as returned by {@link org.gap.eclipse.jdt.common.SignatureCursor#erasureName()}.
+	 * The types are resolved through the given session, and their supertype
+	 * hierarchies are taken from the {@link TypeHierarchyCache}.
+	 */
+	boolean isSubtype(IJavaProject project, String typeName, String superTypeName, CompletionSession session,
+			IProgressMonitor monitor) throws JavaModelException {
+		final ProjectTypes types = projects.computeIfAbsent(project.getHandleIdentifier(),
+				k -> new ProjectTypes());
+		final int type = types.intern(typeName);
+
+		int[] supertypes = types.supertypes(type);
+		CorePlugin.getDefault().getCompletionMetrics().cacheAccess("typeTable", supertypes != null);
+		if (supertypes == null) {
+			final int generation = types.generation();
+			supertypes = types.store(type, supertypes(project, typeName, types, session, monitor), generation);
+		}
+
+		final int superType = types.find(superTypeName);
+		return superType >= 0 && Arrays.binarySearch(supertypes, superType) >= 0;
+	}
+
+	private static int[] supertypes(IJavaProject project, String typeName, ProjectTypes types,
+			CompletionSession session, IProgressMonitor monitor) throws JavaModelException {
+		final IType type = session.findType(project, typeName, monitor);
+		if (type == null) {
+			return NONE;
+		}
+
+		final IType[] supertypes = CorePlugin.getDefault().getTypeHierarchyCache().supertypeHierarchy(type, monitor)
+				.getAllSupertypes(type);
+		final List<String> names = new ArrayList<>(supertypes.length + 1);
+		names.add(typeName);
+		for (IType supertype : supertypes) {
+			names.add(supertype.getFullyQualifiedName('.'));
+		}
+		return types.internAll(names);
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		invalidate(event.getDelta());
+	}
+
+	private void invalidate(IJavaElementDelta delta) {
+		final IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_MODEL:
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				invalidate(child);
+			}
+			return;
+		case IJavaElement.JAVA_PROJECT:
+			if (delta.getKind() == IJavaElementDelta.REMOVED
+					|| (delta.getFlags() & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED
+							| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+				projects.remove(element.getHandleIdentifier());
+				// other projects may see the types of this one through their classpath.
+				clearSupertypes();
+				return;
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if ((delta.getFlags() & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+					| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+				clearSupertypes();
+				return;
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+			// without fine grained deltas the supertypes of the unit's types are unknown.
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| ((delta.getFlags() & IJavaElementDelta.F_CONTENT) != 0
+							&& (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0)) {
+				clearSupertypes();
+				return;
+			}
+			break;
+		case IJavaElement.TYPE:
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & IJavaElementDelta.F_SUPER_TYPES) != 0) {
+				clearSupertypes();
+				return;
+			}
+			break;
+		default:
+			break;
+		}
+
+		if (element.getElementType() <= IJavaElement.TYPE) {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				invalidate(child);
+			}
+		}
+	}
+
+	private void clearSupertypes() {
+		projects.values().forEach(ProjectTypes::clearSupertypes);
+	}
+
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		projects.clear();
+	}
+
+	private static final class ProjectTypes {
+		private final Map<String, Integer> ids = new HashMap<>();
+
+		private int[][] supertypes = new int[256][];
+
+		// incremented when the supertypes are dropped, so closures created before are not stored.
+		private int generation;
+
+		private synchronized int intern(String name) {
+			final Integer id = ids.get(name);
+			if (id != null) {
+				return id;
+			}
+
+			final int newId = ids.size();
+			ids.put(name, newId);
+			if (newId == supertypes.length) {
+				supertypes = Arrays.copyOf(supertypes, newId * 2);
+			}
+			return newId;
+		}
+
+		private synchronized int[] internAll(List<String> names) {
+			final int[] result = new int[names.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = intern(names.get(i));
+			}
+			Arrays.sort(result);
+			return result;
+		}
+
+		private synchronized int find(String name) {
+			final Integer id = ids.get(name);
+			return id != null ? id : -1;
+		}
+
+		private synchronized int[] supertypes(int type) {
+			return supertypes[type];
+		}
+
+		private synchronized int generation() {
+			return generation;
+		}
+
+		private synchronized int[] store(int type, int[] closure, int createdIn) {
+			if (createdIn == generation) {
+				supertypes[type] = closure;
+			}
+			return closure;
+		}
+
+		private synchronized void clearSupertypes() {
+			generation++;
+			Arrays.fill(supertypes, null);
+		}
+	}
+}
@@ -1,18 +1,27 @@
 package org.gap.eclipse.jdt;
 
+import org.gap.eclipse.jdt.common.SignatureCursorTest;
 import org.gap.eclipse.jdt.common.SignaturesAssignableTest;
+import org.gap.eclipse.jdt.debug.CborDumpWriterTest;
+import org.gap.eclipse.jdt.debug.JsonGeneratorTest;
+import org.gap.eclipse.jdt.debug.LongSetTest;
+import org.gap.eclipse.jdt.debug.NdjsonDumpWriterTest;
 import org.gap.eclipse.jdt.types.CompletionASTVistorTest;
 import org.gap.eclipse.jdt.types.Java8ProposalComputerTest;
 import org.gap.eclipse.jdt.types.Java8ProposalComputer_StreamTest;
 import org.gap.eclipse.jdt.types.SmartEnumLiteralProposalComputerTest;
 import org.gap.eclipse.jdt.types.SmartSubTypeComputerTest;
+import org.gap.eclipse.jdt.types.TypeTableTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ CompletionASTVistorTest.class, Java8ProposalComputer_StreamTest.class, Java8ProposalComputerTest.class,
-		SmartEnumLiteralProposalComputerTest.class, SmartSubTypeComputerTest.class, SignaturesAssignableTest.class })
+		SmartEnumLiteralProposalComputerTest.class, SmartSubTypeComputerTest.class, SignaturesAssignableTest.class,
+		SignatureCursorTest.class, JsonGeneratorTest.class,
+		CborDumpWriterTest.class, NdjsonDumpWriterTest.class, TypeTableTest.class,
+		LongSetTest.class })
 public class AllTests {
 
 }
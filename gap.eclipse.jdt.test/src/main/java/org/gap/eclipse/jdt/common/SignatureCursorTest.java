@@ -0,0 +1,90 @@
+package org.gap.eclipse.jdt.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.jdt.core.Signature;
+import org.junit.Test;
+
+public class SignatureCursorTest {
+
+	@Test
+	public void testErasureEquals_SameAsSignature() {
+		String[] signatures = { Signature.createTypeSignature("java.util.List", true),
+				Signature.createTypeSignature("java.util.List<String>", true),
+				Signature.createTypeSignature("java.util.Map<String, java.util.List<Integer>>", true),
+				Signature.createTypeSignature("java.util.Set<String>", true), "Lp.Outer<TT;>.Inner<TU;>;",
+				"Lp.Outer.Inner;", "[Ljava.util.List<*>;" };
+
+		for (String left : signatures) {
+			for (String right : signatures) {
+				assertEquals(left + " = " + right,
+						Signature.getTypeErasure(left).equals(Signature.getTypeErasure(right)),
+						SignatureCursor.of(left).erasureEquals(SignatureCursor.of(right)));
+			}
+		}
+	}
+
+	@Test
+	public void testArguments_SameAsSignature() {
+		String signature = Signature.createTypeSignature(
+				"java.util.function.BiFunction<java.util.Map<String, ? extends Number>, java.util.Set<Long>, ?>", true);
+		SignatureCursor cursor = SignatureCursor.of(signature);
+		String[] arguments = Signature.getTypeArguments(signature);
+
+		int position = cursor.argumentsStart();
+		assertEquals(arguments.length, cursor.argumentCount(position));
+		for (String argument : arguments) {
+			int end = cursor.typeEnd(position);
+			assertEquals(argument, signature.substring(position, end));
+			position = end;
+		}
+	}
+
+	@Test
+	public void testArguments_NoArguments() {
+		SignatureCursor cursor = SignatureCursor.of(Signature.createTypeSignature("java.util.List", true));
+		assertEquals(-1, cursor.argumentsStart());
+		assertEquals(0, cursor.argumentCount(cursor.argumentsStart()));
+	}
+
+	@Test
+	public void testHasQualifier() {
+		SignatureCursor cursor = SignatureCursor.of("Ljava.lang.String;");
+		assertTrue(cursor.hasQualifier(0, cursor.length()));
+		cursor = SignatureCursor.of("TE;");
+		assertFalse(cursor.hasQualifier(0, cursor.length()));
+	}
+
+	@Test
+	public void testErasureName_IgnoresArguments() {
+		SignatureCursor cursor = new SignatureCursor();
+		assertEquals("java.util.Map.Entry", cursor.reset("Ljava.util.Map$Entry<TK;TV;>;").erasureName());
+		assertEquals("java.util.Map.Entry", cursor.reset("Ljava.util.Map$Entry;").erasureName());
+	}
+
+	@Test
+	public void testErasureName_ComputedForWrappedArray() {
+		assertEquals("java.util.List", SignatureCursor.of("Ljava.util.List<Ljava.lang.String;>;").erasureName());
+	}
+
+	@Test
+	public void testErasureName_NotClassType() {
+		assertNull(SignatureCursor.of("[Ljava.util.List;").erasureName());
+		assertNull(SignatureCursor.of("TE;").erasureName());
+		assertNull(SignatureCursor.of("I").erasureName());
+	}
+
+	@Test
+	public void testReset_ReadsLongerSignature() {
+		SignatureCursor cursor = new SignatureCursor();
+		cursor.reset("Ljava.util.List;");
+		String signature = Signature.createTypeSignature(
+				"java.util.Map<java.lang.String, java.util.List<java.util.Map<java.lang.String, java.lang.Integer>>>",
+				true);
+		assertEquals(signature, cursor.reset(signature).toString());
+		assertEquals("java.util.Map", cursor.erasureName());
+	}
+}
@@ -0,0 +1,69 @@
+package org.gap.eclipse.jdt.debug;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class CborDumpWriterTest {
+
+	@Test
+	public void testValue_UnsignedHeads() throws IOException {
+		assertArrayEquals(bytes(0x00), write(w -> w.value(0)));
+		assertArrayEquals(bytes(0x17), write(w -> w.value(23)));
+		assertArrayEquals(bytes(0x18, 0x18), write(w -> w.value(24)));
+		assertArrayEquals(bytes(0x18, 0xff), write(w -> w.value(255)));
+		assertArrayEquals(bytes(0x19, 0x01, 0x00), write(w -> w.value(256)));
+		assertArrayEquals(bytes(0x1a, 0x00, 0x01, 0x00, 0x00), write(w -> w.value(65536)));
+		assertArrayEquals(bytes(0x1b, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00), write(w -> w.value(1L << 32)));
+	}
+
+	@Test
+	public void testValue_NegativeHeads() throws IOException {
+		assertArrayEquals(bytes(0x20), write(w -> w.value(-1)));
+		assertArrayEquals(bytes(0x37), write(w -> w.value(-24)));
+		assertArrayEquals(bytes(0x38, 0x18), write(w -> w.value(-25)));
+		assertArrayEquals(bytes(0x3b, 0x7f, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff),
+				write(w -> w.value(Long.MIN_VALUE)));
+	}
+
+	@Test
+	public void testValue_Scalars() throws IOException {
+		assertArrayEquals(bytes(0x61, 'a'), write(w -> w.value("a")));
+		assertArrayEquals(bytes(0x62, 0xc3, 0xa9), write(w -> w.value("\u00e9")));
+		assertArrayEquals(bytes(0x42, 0x01, 0x02), write(w -> w.value(new byte[] { 1, 2 })));
+		assertArrayEquals(bytes(0xf5), write(w -> w.value(true)));
+		assertArrayEquals(bytes(0xf4), write(w -> w.value(false)));
+		assertArrayEquals(bytes(0xfb, 0x3f, 0xf8, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00), write(w -> w.value(1.5)));
+	}
+
+	@Test
+	public void testBeginObject_IndefiniteLengths() throws IOException {
+		final byte[] written = write(w -> w.beginObject().name("a").beginArray().value(true).value(1).endArray()
+				.name("b").beginObject().endObject().endObject());
+
+		assertArrayEquals(bytes(0xbf, 0x61, 'a', 0x9f, 0xf5, 0x01, 0xff, 0x61, 'b', 0xbf, 0xff, 0xff), written);
+	}
+
+	private interface Dump {
+		void write(DumpWriter writer) throws IOException;
+	}
+
+	private static byte[] write(Dump dump) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (DumpWriter writer = new CborDumpWriter(out)) {
+			dump.write(writer);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] bytes(int... values) {
+		final byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,198 @@
+package org.gap.eclipse.jdt.debug;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaArray;
+import org.eclipse.jdt.debug.core.IJavaObject;
+import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.debug.core.IJavaVariable;
+import org.junit.Test;
+
+public class JsonGeneratorTest {
+
+	@Test
+	public void testWrite_CycleIsReference() throws Exception {
+		final List<IVariable> rootFields = new ArrayList<>();
+		final List<IVariable> nextFields = new ArrayList<>();
+		final IJavaObject root = object(1, rootFields);
+		final IJavaObject next = object(2, nextFields);
+		rootFields.add(variable("self", root));
+		rootFields.add(variable("next", next));
+		nextFields.add(variable("back", root));
+
+		assertEquals("{\"root\":{\"$id\":1,\"self\":{\"$ref\":1},\"next\":{\"$id\":2,\"back\":{\"$ref\":1}}}}",
+				write(variable("root", root)));
+	}
+
+	@Test
+	public void testWrite_ArrayCarriesId() throws Exception {
+		final IJavaObject element = object(2, new ArrayList<>());
+		final IJavaArray array = array(3, element, element);
+		final IJavaObject root = object(1,
+				Arrays.asList(variable("items", array), variable("again", array), variable("name", string("n"))));
+
+		assertEquals("{\"root\":{\"$id\":1,\"items\":{\"$id\":3,\"$items\":[{\"$id\":2},{\"$ref\":2}]},"
+				+ "\"again\":{\"$ref\":3},\"name\":\"n\"}}", write(variable("root", root)));
+	}
+
+	@Test
+	public void testWrite_TruncatedObjectIsNotReferenced() throws Exception {
+		final String json = write(variable("root", chain()));
+		assertTrue(json, json.contains("{\"$type\":\"p.Node\",\"$truncated\":\"depth\"}"));
+		assertTrue(json, json.endsWith(",\"last\":{\"$id\":163}}}"));
+	}
+
+	@Test
+	public void testWrite_TruncationIsReported() throws Exception {
+		final IStatus status = status(variable("root", chain()));
+
+		assertEquals(IStatus.WARNING, status.getSeverity());
+		assertTrue(status.getMessage(), status.getMessage().contains("1 values deeper than 64 levels"));
+	}
+
+	@Test
+	public void testWrite_CompleteDumpIsOk() throws Exception {
+		final IJavaObject element = object(2, new ArrayList<>());
+		final IJavaObject root = object(1, Arrays.asList(variable("items", array(3, element, element))));
+
+		assertTrue(status(variable("root", root)).isOK());
+	}
+
+	/**
+	 * Returns a chain of 64 objects whose first object also references the last
+	 * one, which is beyond the default depth of 64 at the end of the chain.
+	 */
+	private static IJavaObject chain() {
+		final List<List<IVariable>> fields = new ArrayList<>();
+		final List<IJavaObject> chain = new ArrayList<>();
+		for (int i = 0; i <= 63; i++) {
+			fields.add(new ArrayList<>());
+			chain.add(object(100 + i, fields.get(i)));
+		}
+		for (int i = 0; i < 63; i++) {
+			fields.get(i).add(variable("next", chain.get(i + 1)));
+		}
+		fields.get(0).add(variable("last", chain.get(63)));
+		return chain.get(0);
+	}
+
+	private static String write(IJavaVariable variable) throws Exception {
+		final StringWriter out = new StringWriter();
+		try (JsonDumpWriter writer = new JsonDumpWriter(out)) {
+			new JsonGenerator().write(variable, writer, new NullProgressMonitor());
+		}
+		return out.toString();
+	}
+
+	private static IStatus status(IJavaVariable variable) throws Exception {
+		try (JsonDumpWriter writer = new JsonDumpWriter(new StringWriter())) {
+			return new JsonGenerator().write(variable, writer, new NullProgressMonitor());
+		}
+	}
+
+	private static IJavaVariable variable(String name, IJavaValue value) {
+		return fake(IJavaVariable.class, (method, args) -> {
+			switch (method) {
+			case "getName":
+				return name;
+			case "getValue":
+				return value;
+			default:
+				return null;
+			}
+		});
+	}
+
+	private static IJavaObject object(long id, List<IVariable> fields) {
+		return fake(IJavaObject.class, (method, args) -> {
+			switch (method) {
+			case "getUniqueId":
+				return id;
+			case "getReferenceTypeName":
+				return "p.Node";
+			case "getVariables":
+				return fields.toArray(new IVariable[0]);
+			default:
+				return null;
+			}
+		});
+	}
+
+	private static IJavaObject string(String text) {
+		return fake(IJavaObject.class, (method, args) -> {
+			switch (method) {
+			case "getUniqueId":
+				return 1000L;
+			case "getReferenceTypeName":
+				return "java.lang.String";
+			case "getValueString":
+				return text;
+			default:
+				return null;
+			}
+		});
+	}
+
+	private static IJavaArray array(long id, IJavaValue... elements) {
+		return fake(IJavaArray.class, (method, args) -> {
+			switch (method) {
+			case "getUniqueId":
+				return id;
+			case "getReferenceTypeName":
+				return "p.Node[]";
+			case "getSignature":
+				return "[Lp/Node;";
+			case "getLength":
+				return elements.length;
+			case "getValues":
+				final int offset = (Integer) args[0];
+				return Arrays.copyOfRange(elements, offset, offset + (Integer) args[1]);
+			default:
+				return null;
+			}
+		});
+	}
+
+	private interface Answer {
+		Object answer(String method, Object[] args);
+	}
+
+	/**
+	 * Creates a debug model element answering the given methods, and the
+	 * defaults of the primitive types for any other method.
+	 */
+	private static <T> T fake(Class<T> type, Answer answer) {
+		return type.cast(Proxy.newProxyInstance(JsonGeneratorTest.class.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "toString":
+						return type.getSimpleName();
+					case "getModelIdentifier":
+						return "org.gap.eclipse.jdt.test";
+					default:
+						break;
+					}
+					final Object result = answer.answer(method.getName(), args);
+					if (result != null || !method.getReturnType().isPrimitive()
+							|| method.getReturnType() == void.class) {
+						return result;
+					}
+					return Array.get(Array.newInstance(method.getReturnType(), 1), 0);
+				}));
+	}
+}
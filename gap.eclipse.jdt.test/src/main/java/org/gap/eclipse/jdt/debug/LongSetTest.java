@@ -0,0 +1,46 @@
+package org.gap.eclipse.jdt.debug;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LongSetTest {
+
+	@Test
+	public void testAdd_ReportsDuplicates() {
+		final LongSet set = new LongSet();
+
+		assertTrue(set.add(42));
+		assertFalse(set.add(42));
+		assertTrue(set.contains(42));
+		assertFalse(set.contains(43));
+		assertEquals(1, set.size());
+	}
+
+	@Test
+	public void testAdd_Zero() {
+		final LongSet set = new LongSet();
+
+		assertFalse(set.contains(0));
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.contains(0));
+		assertEquals(1, set.size());
+	}
+
+	@Test
+	public void testAdd_KeepsValuesWhenGrowing() {
+		final LongSet set = new LongSet();
+		for (long value = 1; value <= 100_000; value++) {
+			assertTrue(set.add(value * 1024));
+		}
+
+		assertEquals(100_000, set.size());
+		for (long value = 1; value <= 100_000; value++) {
+			assertTrue(set.contains(value * 1024));
+			assertFalse(set.contains(value * 1024 + 1));
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.gap.eclipse.jdt.debug;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class NdjsonDumpWriterTest {
+
+	@Test
+	public void testWrite_NodesReferenceTheirParent() throws IOException {
+		final StringWriter out = new StringWriter();
+		try (DumpWriter writer = new NdjsonDumpWriter(out)) {
+			writer.beginObject().name("list").beginArray().value("x").value(1).endArray().name("flag").value(true)
+					.endObject();
+		}
+
+		assertEquals("{\"id\":0,\"type\":\"object\"}\n"
+				+ "{\"id\":1,\"parent\":0,\"name\":\"list\",\"type\":\"array\"}\n"
+				+ "{\"id\":2,\"parent\":1,\"index\":0,\"type\":\"string\",\"value\":\"x\"}\n"
+				+ "{\"id\":3,\"parent\":1,\"index\":1,\"type\":\"number\",\"value\":1}\n"
+				+ "{\"id\":4,\"parent\":0,\"name\":\"flag\",\"type\":\"boolean\",\"value\":true}\n", out.toString());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEndArray_InObject() throws IOException {
+		new NdjsonDumpWriter(new StringWriter()).beginObject().endArray();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEndObject_AfterName() throws IOException {
+		new NdjsonDumpWriter(new StringWriter()).beginObject().name("a").endObject();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testName_InArray() throws IOException {
+		new NdjsonDumpWriter(new StringWriter()).beginArray().name("a");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testValue_WithoutName() throws IOException {
+		new NdjsonDumpWriter(new StringWriter()).beginObject().value(1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testValue_AfterRoot() throws IOException {
+		new NdjsonDumpWriter(new StringWriter()).beginObject().endObject().value(1);
+	}
+
+	@Test(expected = IOException.class)
+	public void testClose_Incomplete() throws IOException {
+		new NdjsonDumpWriter(new StringWriter()).beginArray().close();
+	}
+}
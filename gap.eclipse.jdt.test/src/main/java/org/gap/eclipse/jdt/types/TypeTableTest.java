@@ -0,0 +1,78 @@
+package org.gap.eclipse.jdt.types;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TypeTableTest {
+	private IJavaProject project;
+
+	private IPackageFragment pkg;
+
+	private TypeTable table;
+
+	@Before
+	public void before() throws CoreException {
+		project = JavaProjectHelper.createJavaProject("TypeTableProject", "bin");
+		JavaProjectHelper.addRTJar18(project);
+		pkg = JavaProjectHelper.addSourceContainer(project, "src").createPackageFragment("table.test", false, null);
+		pkg.createCompilationUnit("A.java", "package table.test;\npublic class A {}\n", true, null);
+		pkg.createCompilationUnit("B.java", "package table.test;\npublic class B extends A {}\n", true, null);
+		table = new TypeTable();
+	}
+
+	@After
+	public void after() throws CoreException {
+		table.dispose();
+		JavaProjectHelper.delete(project);
+	}
+
+	@Test
+	public void testIsSubtype_Closure() throws Exception {
+		assertTrue(isSubtype("table.test.B", "table.test.B"));
+		assertTrue(isSubtype("table.test.B", "table.test.A"));
+		assertTrue(isSubtype("table.test.B", "java.lang.Object"));
+		assertFalse(isSubtype("table.test.A", "table.test.B"));
+		assertFalse(isSubtype("table.test.B", "java.util.List"));
+	}
+
+	@Test
+	public void testIsSubtype_ChangedSupertype() throws Exception {
+		assertTrue(isSubtype("table.test.B", "table.test.A"));
+
+		pkg.createCompilationUnit("B.java", "package table.test;\npublic class B {}\n", true, null);
+
+		assertFalse(isSubtype("table.test.B", "table.test.A"));
+		assertTrue(isSubtype("table.test.B", "java.lang.Object"));
+	}
+
+	@Test
+	public void testIsSubtype_AddedType() throws Exception {
+		// the closure of a missing type is empty until the type is added.
+		assertFalse(isSubtype("table.test.C", "table.test.A"));
+
+		pkg.createCompilationUnit("C.java", "package table.test;\npublic class C extends B {}\n", true, null);
+
+		assertTrue(isSubtype("table.test.C", "table.test.A"));
+	}
+
+	/**
+	 * Checks with a new session each time, as completion does, since a session
+	 * keeps the types it found.
+	 */
+	private boolean isSubtype(String typeName, String superTypeName) throws JavaModelException {
+		final CompletionSession session = CompletionSession
+				.of(new JavaContentAssistInvocationContext(pkg.getCompilationUnit("A.java")));
+		return table.isSubtype(project, typeName, superTypeName, session, new NullProgressMonitor());
+	}
+}